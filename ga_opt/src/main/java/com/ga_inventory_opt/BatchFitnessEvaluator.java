@@ -0,0 +1,98 @@
+package com.ga_inventory_opt;
+
+import java.util.stream.IntStream;
+
+import io.jenetics.Phenotype;
+import io.jenetics.engine.Evaluator;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.MSeq;
+import io.jenetics.util.Seq;
+
+/**
+ * Evaluates a whole generation at once instead of one phenotype at a time.
+ *
+ * The bin genes of every unevaluated individual are copied into one contiguous row-major int matrix
+ * (row k = individual k, column i = bin of item i). Fitness only depends on the bin genes, so the
+ * scoring loops then run over that matrix and the shared primitive arrays of the {@link ProblemInstance}
+ * without touching any genotype objects. Rows are scored in chunks on the common fork/join pool, each
+ * chunk with its own per-bin scratch array.
+ *
+ * Scoring uses the same kernel as the per-individual
+ * {@link InventoryOptimizationWithPositions#fitness(ProblemInstance, double, io.jenetics.Genotype)},
+ * so both produce identical fitness values. The matrix is reused between generations and only grows.
+ */
+public class BatchFitnessEvaluator implements Evaluator<PackingGene, Double> {
+    // Rows per parallel task; small populations are scored on the calling thread
+    static final int CHUNK_SIZE = 64;
+
+    private final ProblemInstance problem;
+    private final double w;
+    private final boolean parallel;
+
+    private int[] binMatrix = new int[0];
+    private double[] scores = new double[0];
+
+    public BatchFitnessEvaluator(ProblemInstance problem, double w) {
+        this(problem, w, true);
+    }
+
+    public BatchFitnessEvaluator(ProblemInstance problem, double w, boolean parallel) {
+        this.problem = problem;
+        this.w = w;
+        this.parallel = parallel;
+    }
+
+    @Override
+    public synchronized ISeq<Phenotype<PackingGene, Double>> eval(Seq<Phenotype<PackingGene, Double>> population) {
+        int numItems = problem.numItems();
+
+        // Gather the individuals that still need a fitness value
+        int[] pending = new int[population.size()];
+        int rows = 0;
+        for (int k = 0; k < population.size(); k++) {
+            if (!population.get(k).isEvaluated()) {
+                pending[rows++] = k;
+            }
+        }
+
+        // Copy their bin genes into the matrix
+        ensureCapacity(rows);
+        for (int r = 0; r < rows; r++) {
+            PackingChromosome chromosome = (PackingChromosome) population.get(pending[r]).genotype().chromosome();
+            chromosome.copyBins(binMatrix, r * numItems);
+        }
+
+        score(rows);
+
+        MSeq<Phenotype<PackingGene, Double>> evaluated = MSeq.of(population);
+        for (int r = 0; r < rows; r++) {
+            evaluated.set(pending[r], evaluated.get(pending[r]).withFitness(scores[r]));
+        }
+        return evaluated.toISeq();
+    }
+
+    // ---------- Scoring ----------
+    private void score(int rows) {
+        int chunks = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        IntStream tasks = IntStream.range(0, chunks);
+        if (parallel && chunks > 1) {
+            tasks = tasks.parallel();
+        }
+        tasks.forEach(chunk -> scoreRows(chunk * CHUNK_SIZE, Math.min(rows, (chunk + 1) * CHUNK_SIZE)));
+    }
+
+    private void scoreRows(int from, int to) {
+        int numItems = problem.numItems();
+        double[] binUsedAreas = new double[problem.numBins()];
+        for (int r = from; r < to; r++) {
+            scores[r] = InventoryOptimizationWithPositions.fitness(problem, w, binMatrix, r * numItems, binUsedAreas);
+        }
+    }
+
+    private void ensureCapacity(int rows) {
+        if (scores.length < rows) {
+            binMatrix = new int[rows * problem.numItems()];
+            scores = new double[rows];
+        }
+    }
+}
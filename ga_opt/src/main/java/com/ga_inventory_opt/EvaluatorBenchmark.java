@@ -0,0 +1,128 @@
+package com.ga_inventory_opt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Random;
+
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.OptimizationResult;
+
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.RandomRegistry;
+
+/**
+ * Measures fitness evaluations per second for per-individual scoring and for the
+ * {@link BatchFitnessEvaluator} (single-threaded and parallel), and checks that all three
+ * give identical scores. Then compares whole optimizer runs with and without a seed, as seeded runs
+ * draw every random number from a keyed stream ({@link SeededStreams}): unseeded and seeded runs
+ * alternate, and each reports the candidates its constraint checked per second (mean, standard
+ * deviation and range over the runs).
+ *
+ * Usage: EvaluatorBenchmark [items] [bins] [population] [rounds] [runs]
+ */
+public class EvaluatorBenchmark {
+
+    public static void main(String[] args) {
+        int numItems = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int numBins = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int populationSize = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        int runs = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+        double w = 0.75;
+
+        // Random instance, reproducible between runs
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>();
+        for (int i = 1; i <= numItems; i++) {
+            items.add(new Item(i, 1 + random.nextInt(20), 1 + random.nextInt(20), 5 + random.nextInt(100)));
+        }
+        List<Bin> bins = new ArrayList<>();
+        for (int b = 1; b <= numBins; b++) {
+            bins.add(new Bin(b, 20 + random.nextInt(200), 20 + random.nextInt(200)));
+        }
+        ProblemInstance problem = ProblemInstance.of(items, bins);
+
+        ISeq<Phenotype<PackingGene, Double>> population = RandomRegistry.with(new Random(7), r ->
+                Genotype.of(PackingChromosome.of(problem)).instances()
+                        .limit(populationSize)
+                        .map(gt -> Phenotype.<PackingGene, Double>of(gt, 0))
+                        .collect(ISeq.toISeq()));
+
+        System.out.printf("Items: %d, bins: %d, population: %d, rounds: %d, cores: %d%n",
+                numItems, numBins, populationSize, rounds, Runtime.getRuntime().availableProcessors());
+
+        // Per individual, through the genotype
+        double[] reference = new double[populationSize];
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (int k = 0; k < populationSize; k++) {
+                reference[k] = InventoryOptimizationWithPositions.fitness(problem, w, population.get(k).genotype());
+            }
+        }
+        report("Per individual", populationSize * (long) rounds, System.nanoTime() - start);
+
+        benchmark("Batch (1 thread)", new BatchFitnessEvaluator(problem, w, false), population, rounds, reference);
+        benchmark("Batch (parallel)", new BatchFitnessEvaluator(problem, w, true), population, rounds, reference);
+
+        // Whole runs on the first 200 items; both keep the engine's parallel executor
+        List<Item> runItems = items.subList(0, Math.min(200, numItems));
+        double[] unseeded = new double[runs];
+        double[] seeded = new double[runs];
+        for (int run = -1; run < runs; run++) { // Run -1 is warm-up
+            // Alternate, so that drift in machine load affects both alike
+            double unseededRate = runRate(runItems, bins, null);
+            double seededRate = runRate(runItems, bins, 1L + run);
+            if (run >= 0) {
+                unseeded[run] = unseededRate;
+                seeded[run] = seededRate;
+            }
+        }
+        reportRuns("Unseeded runs", unseeded);
+        reportRuns("Seeded runs", seeded);
+    }
+
+    // Candidates checked per second in one 100-generation run
+    private static double runRate(List<Item> items, List<Bin> bins, Long seed) {
+        InventoryOptimizationWithPositions optimizer = new InventoryOptimizationWithPositions();
+        optimizer.setMaxGenerations(100);
+        optimizer.setSeed(seed);
+        long start = System.nanoTime();
+        OptimizationResult result = optimizer.optimize(items, bins);
+        long nanos = System.nanoTime() - start;
+        return (result.fullEvaluations + result.savedEvaluations) / (nanos / 1e9);
+    }
+
+    private static void benchmark(String name, BatchFitnessEvaluator evaluator,
+                                  ISeq<Phenotype<PackingGene, Double>> population, int rounds, double[] reference) {
+        ISeq<Phenotype<PackingGene, Double>> evaluated = evaluator.eval(population); // Warm-up
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            evaluated = evaluator.eval(population);
+        }
+        report(name, population.size() * (long) rounds, System.nanoTime() - start);
+
+        for (int k = 0; k < population.size(); k++) {
+            if (Double.compare(evaluated.get(k).fitness(), reference[k]) != 0) {
+                throw new IllegalStateException(String.format("%s: score of individual %d differs: %s vs %s",
+                        name, k, evaluated.get(k).fitness(), reference[k]));
+            }
+        }
+    }
+
+    private static void report(String name, long evaluations, long nanos) {
+        System.out.printf("%-18s %12.0f evaluations/s%n", name, evaluations / (nanos / 1e9));
+    }
+
+    private static void reportRuns(String name, double[] rates) {
+        DoubleSummaryStatistics stats = Arrays.stream(rates).summaryStatistics();
+        double variance = Arrays.stream(rates).map(r -> (r - stats.getAverage()) * (r - stats.getAverage())).sum()
+                / Math.max(1, rates.length - 1);
+        System.out.printf("%-18s %12.0f evaluations/s (sd %.0f, range %.0f-%.0f over %d runs)%n", name,
+                stats.getAverage(), Math.sqrt(variance), stats.getMin(), stats.getMax(), rates.length);
+    }
+}
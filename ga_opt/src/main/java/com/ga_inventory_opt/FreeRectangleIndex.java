@@ -0,0 +1,141 @@
+package com.ga_inventory_opt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Free space of one bin as a set of maximal free rectangles (MaxRects).
+ *
+ * Every rectangle in the set is empty and cannot be grown in any direction without covering an item;
+ * rectangles may overlap each other. Occupying space splits each free rectangle it touches into the
+ * up to four maximal pieces around it. There is no incremental free: a removed item can merge with
+ * free space on all sides, so the owner calls {@link #rebuild(double, double, List)} with the items
+ * that remain, as {@link PlacementSession} does on removals and bin resizes.
+ *
+ * Rectangles use the placement convention of {@link InventoryOptimizationWithPositions.ItemPlacement}:
+ * {row, col, height, width}, with row along the bin height and col along the bin width.
+ */
+final class FreeRectangleIndex {
+    // Tolerance for comparisons of coordinates that went through additions
+    static final double EPS = 1e-9;
+
+    private final List<double[]> free = new ArrayList<>();
+    private double width;
+    private double height;
+    private double usedArea;
+
+    FreeRectangleIndex(double width, double height) {
+        this.width = width;
+        this.height = height;
+        free.add(new double[]{0, 0, height, width});
+    }
+
+    // ---------- Queries ----------
+    /**
+     * Best position for a height x width rectangle: the free rectangle that leaves the shortest
+     * leftover side (best short side fit), then the longest. Returns {row, col, shortSide, longSide},
+     * or null if the rectangle fits nowhere.
+     */
+    double[] find(double itemHeight, double itemWidth) {
+        double[] best = null;
+        for (double[] rect : free) {
+            double leftoverHeight = rect[2] - itemHeight;
+            double leftoverWidth = rect[3] - itemWidth;
+            if (leftoverHeight < -EPS || leftoverWidth < -EPS) {
+                continue;
+            }
+            double shortSide = Math.min(leftoverHeight, leftoverWidth);
+            double longSide = Math.max(leftoverHeight, leftoverWidth);
+            if (best == null || shortSide < best[2] || (shortSide == best[2] && longSide < best[3])) {
+                best = new double[]{rect[0], rect[1], shortSide, longSide};
+            }
+        }
+        return best;
+    }
+
+    /** Free area of the bin (bin area minus occupied area). */
+    double freeArea() {
+        return Math.max(0, width * height - usedArea);
+    }
+
+    double largestFreeRectangle() {
+        double largest = 0.0;
+        for (double[] rect : free) {
+            largest = Math.max(largest, rect[2] * rect[3]);
+        }
+        return largest;
+    }
+
+    int size() {
+        return free.size();
+    }
+
+    // ---------- Updates ----------
+    /** Marks the rectangle as occupied. It must lie inside the bin and not overlap occupied space. */
+    void occupy(double row, double col, double rectHeight, double rectWidth) {
+        usedArea += rectHeight * rectWidth;
+
+        List<double[]> pieces = new ArrayList<>();
+        for (int k = free.size() - 1; k >= 0; k--) {
+            double[] rect = free.get(k);
+            if (!overlaps(rect, row, col, rectHeight, rectWidth)) {
+                continue;
+            }
+            free.remove(k);
+            double rectBottom = rect[0] + rect[2];
+            double rectRight = rect[1] + rect[3];
+            if (row > rect[0] + EPS) {
+                pieces.add(new double[]{rect[0], rect[1], row - rect[0], rect[3]});
+            }
+            if (row + rectHeight < rectBottom - EPS) {
+                pieces.add(new double[]{row + rectHeight, rect[1], rectBottom - (row + rectHeight), rect[3]});
+            }
+            if (col > rect[1] + EPS) {
+                pieces.add(new double[]{rect[0], rect[1], rect[2], col - rect[1]});
+            }
+            if (col + rectWidth < rectRight - EPS) {
+                pieces.add(new double[]{rect[0], col + rectWidth, rect[2], rectRight - (col + rectWidth)});
+            }
+        }
+
+        // Keep only maximal rectangles; of identical pieces the first one is kept
+        for (int k = 0; k < pieces.size(); k++) {
+            double[] piece = pieces.get(k);
+            boolean contained = false;
+            for (double[] rect : free) {
+                contained |= contains(rect, piece);
+            }
+            for (int j = 0; j < pieces.size() && !contained; j++) {
+                double[] other = pieces.get(j);
+                contained = j != k && contains(other, piece) && (j < k || !contains(piece, other));
+            }
+            if (!contained) {
+                free.add(piece);
+            }
+        }
+    }
+
+    /** Resets the index to the given bin size and occupied rectangles ({row, col, height, width}). */
+    void rebuild(double newWidth, double newHeight, List<double[]> occupied) {
+        width = newWidth;
+        height = newHeight;
+        usedArea = 0.0;
+        free.clear();
+        free.add(new double[]{0, 0, height, width});
+        for (double[] rect : occupied) {
+            occupy(rect[0], rect[1], rect[2], rect[3]);
+        }
+    }
+
+    // ---------- Geometry ----------
+    private static boolean overlaps(double[] rect, double row, double col, double rectHeight, double rectWidth) {
+        return row < rect[0] + rect[2] - EPS && rect[0] < row + rectHeight - EPS
+                && col < rect[1] + rect[3] - EPS && rect[1] < col + rectWidth - EPS;
+    }
+
+    private static boolean contains(double[] outer, double[] inner) {
+        return inner[0] >= outer[0] - EPS && inner[1] >= outer[1] - EPS
+                && inner[0] + inner[2] <= outer[0] + outer[2] + EPS
+                && inner[1] + inner[3] <= outer[1] + outer[3] + EPS;
+    }
+}
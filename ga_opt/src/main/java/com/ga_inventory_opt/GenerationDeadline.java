@@ -0,0 +1,77 @@
+package com.ga_inventory_opt;
+
+import io.jenetics.Phenotype;
+import io.jenetics.engine.Constraint;
+import io.jenetics.engine.Evaluator;
+
+/**
+ * Wall-clock deadline inside a generation.
+ *
+ * A stream limit is only checked between generations, so with a large population a run can overshoot
+ * its deadline by a whole generation. The wrapped evaluator and constraint check the deadline on every
+ * evaluation and on every constraint test or repair, and abandon the generation by throwing
+ * {@link Reached} once it has passed. A run without a known initial layout arms the deadline only
+ * after its first generation, so that there is always something to report.
+ */
+final class GenerationDeadline {
+    private final long deadline; // System.nanoTime()
+    private volatile boolean armed;
+
+    GenerationDeadline(long deadline, boolean armed) {
+        this.deadline = deadline;
+        this.armed = armed;
+    }
+
+    /** Call after every finished generation. */
+    void arm() {
+        armed = true;
+    }
+
+    Evaluator<PackingGene, Double> evaluator(Evaluator<PackingGene, Double> evaluator) {
+        return population -> {
+            check();
+            return evaluator.eval(population);
+        };
+    }
+
+    Constraint<PackingGene, Double> constraint(Constraint<PackingGene, Double> constraint) {
+        return new Constraint<>() {
+            @Override
+            public boolean test(Phenotype<PackingGene, Double> individual) {
+                check();
+                return constraint.test(individual);
+            }
+
+            @Override
+            public Phenotype<PackingGene, Double> repair(Phenotype<PackingGene, Double> individual, long generation) {
+                check();
+                return constraint.repair(individual, generation);
+            }
+        };
+    }
+
+    private void check() {
+        if (armed && System.nanoTime() >= deadline) {
+            throw new Reached();
+        }
+    }
+
+    /** Whether {@code failure}, possibly wrapped by the engine's asynchronous stages, is a {@link Reached}. */
+    static boolean reached(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof Reached) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Control flow only: no message, no stack trace
+    static final class Reached extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Reached() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -2,20 +2,22 @@ package com.ga_inventory_opt;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
 
-import io.jenetics.DoubleChromosome;
-import io.jenetics.DoubleGene;
 import io.jenetics.Genotype;
-import io.jenetics.Mutator;
 import io.jenetics.Optimize;
 import io.jenetics.Phenotype;
-import io.jenetics.SinglePointCrossover;
-import io.jenetics.engine.Constraint;
 import io.jenetics.engine.Engine;
+import io.jenetics.engine.EvolutionInterceptor;
 import io.jenetics.engine.EvolutionResult;
 import io.jenetics.util.Factory;
+import io.jenetics.util.RandomRegistry;
 
 public class InventoryOptimizationWithPositions {
        // ---------- Inner Classes for Data Transfer ----------
@@ -69,10 +71,20 @@ public class InventoryOptimizationWithPositions {
         public final double totalStoredArea;
         public final double valuePercentage;
         public final double areaPercentage;
+        public final long fullEvaluations;  // candidates that got overlap validation / placement
+        public final long savedEvaluations; // candidates settled by the cheap area or surrogate stage
         
         public OptimizationResult(List<List<Integer>> itemsInBins, List<ItemPlacement> itemPlacements,
                                  double fitness, double totalStoredPrice, double totalStoredArea,
                                  double valuePercentage, double areaPercentage) {
+            this(itemsInBins, itemPlacements, fitness, totalStoredPrice, totalStoredArea,
+                 valuePercentage, areaPercentage, 0, 0);
+        }
+        
+        public OptimizationResult(List<List<Integer>> itemsInBins, List<ItemPlacement> itemPlacements,
+                                 double fitness, double totalStoredPrice, double totalStoredArea,
+                                 double valuePercentage, double areaPercentage,
+                                 long fullEvaluations, long savedEvaluations) {
             this.itemsInBins = itemsInBins;
             this.itemPlacements = itemPlacements;
             this.fitness = fitness;
@@ -80,19 +92,15 @@ public class InventoryOptimizationWithPositions {
             this.totalStoredArea = totalStoredArea;
             this.valuePercentage = valuePercentage;
             this.areaPercentage = areaPercentage;
+            this.fullEvaluations = fullEvaluations;
+            this.savedEvaluations = savedEvaluations;
         }
     }
     
-    // ---------- Instance Variables ----------
-    private int numItems;
-    private int numBins;
-    private double[][] items; // [width, height, price]
-    private double[][] bins;  // [width, height]
-    private double[] itemAreas;
-    private double[] binAreas;
-    private double totalBinArea;
-    private double totalInventoryPrice;
-    
+    // ---------- Parameters ----------
+    // The problem itself is passed to optimize() as an immutable ProblemInstance, so the only state
+    // kept here is configuration; it is read once at the start of each run.
+
     // Weight for fitness calculation (importance of value vs area)
     private double W = 0.7;
     
@@ -102,6 +110,9 @@ public class InventoryOptimizationWithPositions {
     private double mutationRate = 0.2;
     private double crossoverRate = 0.3;
 
+    // Seed of the run's random source; null draws from Jenetics' default (non-reproducible) source
+    private Long seed = null;
+
     // ---------- Configuration Methods ----------
     public void setWeightW(double w) {
         this.W = w;
@@ -122,152 +133,186 @@ public class InventoryOptimizationWithPositions {
     public void setCrossoverRate(double rate) {
         this.crossoverRate = rate;
     }
+
+    /**
+     * With a seed, the same problem and parameters always give an identical result; the engine keeps
+     * running its stages on several threads (see {@link SeededStreams}). Pass null to go back to
+     * unseeded runs.
+     */
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
     
     // ---------- Main Optimization Method ----------
     public OptimizationResult optimize(List<Item> itemList, List<Bin> binList) {
-        // Initialize data structures
-        numItems = itemList.size();
-        numBins = binList.size();
-        
-        items = new double[numItems][3];
-        bins = new double[numBins][2];
-        
-        // Populate items array
-        for (int i = 0; i < numItems; i++) {
-            Item item = itemList.get(i);
-            items[i][0] = item.width;
-            items[i][1] = item.height;
-            items[i][2] = item.price;
-        }
-        
-        // Populate bins array
-        for (int i = 0; i < numBins; i++) {
-            Bin bin = binList.get(i);
-            bins[i][0] = bin.width;
-            bins[i][1] = bin.height;
-        }
-        
-        // Calculate areas and totals
-        itemAreas = new double[numItems];
-        for (int i = 0; i < numItems; i++) {
-            itemAreas[i] = items[i][0] * items[i][1];
-        }
-        
-        binAreas = new double[numBins];
-        totalBinArea = 0.0;
-        for (int i = 0; i < numBins; i++) {
-            binAreas[i] = bins[i][0] * bins[i][1];
-            totalBinArea += binAreas[i];
-        }
-        
-        totalInventoryPrice = 0.0;
-        for (int i = 0; i < numItems; i++) {
-            totalInventoryPrice += items[i][2];
-        }
-        
-        // Find max bin dimensions for coordinate bounds
-        double maxBinHeight = 0.0;
-        double maxBinWidth = 0.0;
-        for (int i = 0; i < numBins; i++) {
-            if (bins[i][1] > maxBinHeight) maxBinHeight = bins[i][1];
-            if (bins[i][0] > maxBinWidth) maxBinWidth = bins[i][0];
-        }
-        
+        return optimize(ProblemInstance.of(itemList, binList));
+    }
+
+    public OptimizationResult optimize(ProblemInstance problem) {
+        return optimize(problem, null);
+    }
+
+    /**
+     * Runs the optimization with {@code initial} (if not null) as one member of the first generation,
+     * so the search starts from a known layout; the rest of the population is random.
+     */
+    public OptimizationResult optimize(ProblemInstance problem, PackingChromosome initial) {
+        return optimize(problem, initial, result -> true);
+    }
+
+    /**
+     * Runs the optimization until maxGenerations or until {@code proceed} rejects a generation, and
+     * reports the best solution found so far. Used to run under a deadline or to stop a run early.
+     */
+    OptimizationResult optimize(ProblemInstance problem, PackingChromosome initial,
+                                Predicate<? super EvolutionResult<PackingGene, Double>> proceed) {
+        return optimize(problem, initial, proceed, EvolutionInterceptor.identity(), Long.MAX_VALUE);
+    }
+
+    /**
+     * As above; {@code interceptor} sees every generation before it evolves, so layouts found elsewhere
+     * can be put into the population. Once {@code deadline} ({@link System#nanoTime()}, Long.MAX_VALUE
+     * for none) has passed, the running generation is abandoned and the best finished one is reported;
+     * if none has finished yet, the legalized {@code initial} layout is.
+     */
+    OptimizationResult optimize(ProblemInstance problem, PackingChromosome initial,
+                                Predicate<? super EvolutionResult<PackingGene, Double>> proceed,
+                                EvolutionInterceptor<PackingGene, Double> interceptor, long deadline) {
+        // Snapshot parameters so concurrent setter calls cannot affect a running optimization
+        final double w = W;
+        final int populationSize = this.populationSize;
+        final int maxGenerations = this.maxGenerations;
+        final double mutationRate = this.mutationRate;
+        final double crossoverRate = this.crossoverRate;
+        final Long seed = this.seed;
+
         // Run genetic algorithm
-        // Each item needs 4 genes: bin_number, row_coordinate, col_coordinate, rotation
-        // Chromosome length = numItems * 4
-        Factory<Genotype<DoubleGene>> genotypeFactory = Genotype.of(
-            DoubleChromosome.of(0, numBins, numItems),           // Gene 0, 4, 8, 12... : bin number (0 to numBins)
-            DoubleChromosome.of(0, maxBinHeight, numItems),      // Gene 1, 5, 9, 13... : row coordinate (0 to maxBinHeight)
-            DoubleChromosome.of(0, maxBinWidth, numItems),       // Gene 2, 6, 10, 14...: col coordinate (0 to maxBinWidth)
-            DoubleChromosome.of(0, 1, numItems)                  // Gene 3, 7, 11, 15...: rotation (0 or 1)
-        );
+        // Each item needs 4 genes: bin_number (0 to numBins), row_coordinate (0 to maxBinHeight),
+        // col_coordinate (0 to maxBinWidth), rotation (0 or 1). They are stored together in one
+        // primitive-backed PackingChromosome with one PackingGene per item.
+        Factory<Genotype<PackingGene>> genotypeFactory = Genotype.of(PackingChromosome.of(problem));
+
+        // Seeded runs give every random consumer its own keyed stream, so the result does not depend
+        // on how the parallel engine schedules its stages
+        SeededStreams<PackingGene, Double> streams = seed == null ? null : new SeededStreams<>(seed);
+
+        // Packing-aware operators: crossover keeps each item's four genes together, mutation applies
+        // move/swap/rotate/evict with operator probabilities adapted from the previous generation
+        PackingMutator mutator = new PackingMutator(mutationRate, problem);
+
+        // Staged evaluation: cheap area screen and surrogate score first, overlap validation and
+        // geometric placement only for candidates that could enter the elite set
+        StagedConstraint constraint = new StagedConstraint(problem, w);
 
-        Engine<DoubleGene, Double> engine = Engine.builder(this::fitness, genotypeFactory)
+        // Whole generations are scored at once from a contiguous matrix of bin genes
+        BatchFitnessEvaluator evaluator = new BatchFitnessEvaluator(problem, w);
+
+        // Under a deadline, evaluation and constraint checks stop a generation that runs past it
+        GenerationDeadline cutoff = deadline == Long.MAX_VALUE ? null : new GenerationDeadline(deadline, initial != null);
+
+        Engine.Builder<PackingGene, Double> builder = new Engine.Builder<>(
+                        cutoff == null ? evaluator : cutoff.evaluator(evaluator),
+                        streams == null ? genotypeFactory : streams.factory(genotypeFactory))
                 .optimize(Optimize.MAXIMUM)
                 .populationSize(populationSize)
                 .alterers(
-                    new Mutator<>(mutationRate),
-                    new SinglePointCrossover<>(crossoverRate)
+                    new ItemAlignedCrossover(crossoverRate),
+                    mutator
                 )
-                .constraint(Constraint.of(this::isValid, this::repair))
-                .build();
+                .constraint(cutoff == null ? constraint : cutoff.constraint(constraint))
+                .interceptor(interceptor);
+        if (streams != null) {
+            streams.configure(builder, genotypeFactory);
+        }
+        Engine<PackingGene, Double> engine = builder.build();
 
-        EvolutionResult<DoubleGene, Double> result = engine.stream()
-                .limit(maxGenerations)
-                .collect(EvolutionResult.toBestEvolutionResult());
+        AtomicReference<EvolutionResult<PackingGene, Double>> finished = new AtomicReference<>();
+        EvolutionResult<PackingGene, Double> result;
+        try {
+            result = (initial == null ? engine.stream() : engine.stream(List.of(Genotype.of(initial))))
+                    .limit(r -> r.generation() == 1 || proceed.test(r)) // Always keep one generation to report
+                    .limit(maxGenerations)
+                    .peek(mutator::update)
+                    .peek(constraint::update)
+                    .peek(r -> {
+                        if (streams != null) {
+                            streams.update(r);
+                        }
+                        if (cutoff != null) {
+                            finished.accumulateAndGet(r, (best, next) ->
+                                    best == null || next.bestFitness() > best.bestFitness() ? next : best);
+                            cutoff.arm();
+                        }
+                    })
+                    .collect(EvolutionResult.toBestEvolutionResult());
+        } catch (RuntimeException e) {
+            if (cutoff == null || !GenerationDeadline.reached(e)) {
+                throw e;
+            }
+            result = finished.get(); // Best of the generations finished before the deadline
+            if (result == null) {
+                PackingChromosome legal = StagedConstraint.legalize(problem, initial);
+                return toResult(problem, legal, fitness(problem, w, Genotype.of(legal)),
+                                constraint.fullEvaluations(), constraint.savedEvaluations());
+            }
+        }
 
         // Extract and return results
-        return extractResult(result);
+        return extractResult(problem, w, result, constraint);
     }
     
     // ---------- Fitness Function ----------
-    private double fitness(Genotype<DoubleGene> gt) {
-        // Extract the 4 chromosomes
-        DoubleChromosome binChromosome = (DoubleChromosome) gt.get(0);
-        DoubleChromosome rowChromosome = (DoubleChromosome) gt.get(1);
-        DoubleChromosome colChromosome = (DoubleChromosome) gt.get(2);
-        DoubleChromosome rotChromosome = (DoubleChromosome) gt.get(3);
-
-        // Track items in each bin
-        List<List<Integer>> itemsInBins = new ArrayList<>();
-        for (int i = 0; i <= numBins; i++) {
-            itemsInBins.add(new ArrayList<>());
-        }
-        
-        // Map items to bins based on chromosome
-        for (int i = 0; i < numItems; i++) {
-            int binIndex = (int) Math.round(binChromosome.get(i).doubleValue());
-            // Ensure bin index is valid (0 to numBins)
-            binIndex = Math.max(0, Math.min(numBins, binIndex));
-            itemsInBins.get(binIndex).add(i);
-        }
+    static double fitness(ProblemInstance problem, double W, Genotype<PackingGene> gt) {
+        PackingChromosome chromosome = (PackingChromosome) gt.chromosome();
+        int[] bins = new int[problem.numItems()];
+        chromosome.copyBins(bins, 0);
+        return fitness(problem, W, bins, 0, new double[problem.numBins()]);
+    }
+    
+    /**
+     * Fitness of one individual given only its bin genes: bins[offset .. offset + numItems).
+     * binUsedAreas is caller-provided scratch space of length numBins. This is the single
+     * implementation used both per individual and by {@link BatchFitnessEvaluator}, so both give
+     * bit-identical scores.
+     */
+    static double fitness(ProblemInstance problem, double W, int[] bins, int offset, double[] binUsedAreas) {
+        int numItems = problem.numItems();
+        int numBins = problem.numBins();
         
         double priceOfStoredProducts = 0.0;
         double areaOfStoredProducts = 0.0;
         
-        // Track area used in each bin for binOptimizedScore calculation
-        double[] binUsedAreas = new double[numBins];
+        // Track area used in each bin for binOptimizedScore calculation, and the smallest
+        // item outside storage (bin 0)
+        Arrays.fill(binUsedAreas, 0, numBins, 0.0);
+        int itemsOutside = 0;
+        double smallestOutsideArea = Double.POSITIVE_INFINITY;
         
-        // Process each bin (skip bin 0 as it means "not in storage")
         // No need to check capacity here - constraint validator ensures all chromosomes are valid
-        for (int binIdx = 1; binIdx <= numBins; binIdx++) {
-            List<Integer> itemsInThisBin = itemsInBins.get(binIdx);
-            
-            double binUsedArea = 0.0;
-            for (int itemIdx : itemsInThisBin) {
-                areaOfStoredProducts += itemAreas[itemIdx];
-                priceOfStoredProducts += items[itemIdx][2];
-                binUsedArea += itemAreas[itemIdx];
+        for (int i = 0; i < numItems; i++) {
+            int binIndex = bins[offset + i];
+            double itemArea = problem.itemArea(i);
+            if (binIndex == 0) {
+                itemsOutside++;
+                if (itemArea < smallestOutsideArea) smallestOutsideArea = itemArea;
+            } else {
+                areaOfStoredProducts += itemArea;
+                priceOfStoredProducts += problem.itemPrice(i);
+                binUsedAreas[binIndex - 1] += itemArea;
             }
-            binUsedAreas[binIdx - 1] = binUsedArea;
         }
         
         // Calculate binOptimizedScore
-        double binOptimizedScore = 0.0;
+        double binOptimizedScore;
         
-        // Get items outside storage (bin 0)
-        List<Integer> itemsOutside = itemsInBins.get(0);
-        
-        if (!itemsOutside.isEmpty()) {
+        if (itemsOutside > 0) {
             int binScoreSum = 0;
             
-            // For each bin, check if any outside item could fit
+            // A bin scores 1 if no outside item could fit its free area; some outside item
+            // fits exactly when the smallest one does
             for (int binIdx = 0; binIdx < numBins; binIdx++) {
-                double freeArea = binAreas[binIdx] - binUsedAreas[binIdx];
-                
-                boolean canFitAnyOutsideItem = false;
-                
-                // Check if any item from outside can fit in this bin's free area
-                for (int outsideItemIdx : itemsOutside) {
-                    if (itemAreas[outsideItemIdx] <= freeArea) {
-                        canFitAnyOutsideItem = true;
-                        break;
-                    }
-                }
-                
-                // If no outside item can fit, this bin gets score of 1
-                if (!canFitAnyOutsideItem) {
+                double freeArea = problem.binArea(binIdx) - binUsedAreas[binIdx];
+                if (!(smallestOutsideArea <= freeArea)) {
                     binScoreSum += 1;
                 }
                 // If an outside item could fit, this bin gets score of 0 (penalty)
@@ -280,6 +325,8 @@ public class InventoryOptimizationWithPositions {
         }
         
         // Normalized scores
+        double totalInventoryPrice = problem.totalInventoryPrice();
+        double totalBinArea = problem.totalBinArea();
         double valueScore = (totalInventoryPrice == 0) ? 0.0 : priceOfStoredProducts / totalInventoryPrice;
         double areaScore = (totalBinArea == 0) ? 0.0 : areaOfStoredProducts / totalBinArea;
 
@@ -289,14 +336,10 @@ public class InventoryOptimizationWithPositions {
     }
     
     // ---------- Constraint Validator ----------
-    private boolean isValid(Phenotype<DoubleGene, Double> phenotype) {
-        Genotype<DoubleGene> gt = phenotype.genotype();
-        
-        // Extract the 4 chromosomes
-        DoubleChromosome binChromosome = (DoubleChromosome) gt.get(0);
-        DoubleChromosome rowChromosome = (DoubleChromosome) gt.get(1);
-        DoubleChromosome colChromosome = (DoubleChromosome) gt.get(2);
-        DoubleChromosome rotChromosome = (DoubleChromosome) gt.get(3);
+    static boolean isValid(ProblemInstance problem, Phenotype<PackingGene, Double> phenotype) {
+        PackingChromosome chromosome = (PackingChromosome) phenotype.genotype().chromosome();
+        int numItems = problem.numItems();
+        int numBins = problem.numBins();
         
         // Helper class to store item placement info
         class ItemInfo {
@@ -339,15 +382,14 @@ public class InventoryOptimizationWithPositions {
         
         // Step 1: Break into groups and map items to bins
         for (int i = 0; i < numItems; i++) {
-            int binIndex = (int) Math.round(binChromosome.get(i).doubleValue());
-            binIndex = Math.max(0, Math.min(numBins, binIndex));
+            int binIndex = chromosome.bin(i);
             
-            double row = rowChromosome.get(i).doubleValue();
-            double col = colChromosome.get(i).doubleValue();
-            boolean rotated = Math.round(rotChromosome.get(i).doubleValue()) == 1;
+            double row = chromosome.row(i);
+            double col = chromosome.col(i);
+            boolean rotated = chromosome.rotated(i);
             
-            double itemWidth = items[i][0];
-            double itemHeight = items[i][1];
+            double itemWidth = problem.itemWidth(i);
+            double itemHeight = problem.itemHeight(i);
             
             ItemInfo info = new ItemInfo(i, row, col, rotated, itemWidth, itemHeight);
             itemsInBins.get(binIndex).add(info);
@@ -361,8 +403,8 @@ public class InventoryOptimizationWithPositions {
                 continue; // Empty bin is valid
             }
             
-            double binWidth = bins[binIdx - 1][0];
-            double binHeight = bins[binIdx - 1][1];
+            double binWidth = problem.binWidth(binIdx - 1);
+            double binHeight = problem.binHeight(binIdx - 1);
             
             // Check each item in this bin
             for (ItemInfo item : itemsInThisBin) {
@@ -406,108 +448,96 @@ public class InventoryOptimizationWithPositions {
     }
     
     // ---------- Repair Function ----------
-    private Phenotype<DoubleGene, Double> repair(Phenotype<DoubleGene, Double> phenotype, Long generation) {
-        Genotype<DoubleGene> gt = phenotype.genotype();
-        
-        // Extract the 4 chromosomes
-        DoubleChromosome binChromosome = (DoubleChromosome) gt.get(0);
-        DoubleChromosome rowChromosome = (DoubleChromosome) gt.get(1);
-        DoubleChromosome colChromosome = (DoubleChromosome) gt.get(2);
-        DoubleChromosome rotChromosome = (DoubleChromosome) gt.get(3);
-        
-        // Get the original ranges from the chromosomes
-        double binMin = binChromosome.min().doubleValue();
-        double binMax = binChromosome.max().doubleValue();
-        double rowMin = rowChromosome.min().doubleValue();
-        double rowMax = rowChromosome.max().doubleValue();
-        double colMin = colChromosome.min().doubleValue();
-        double colMax = colChromosome.max().doubleValue();
-        double rotMin = rotChromosome.min().doubleValue();
-        double rotMax = rotChromosome.max().doubleValue();
-        
-        // Repair bin numbers: round to nearest integer and clamp to [0, numBins]
-        DoubleGene[] repairedBinGenes = new DoubleGene[numItems];
-        for (int i = 0; i < numItems; i++) {
-            double value = binChromosome.get(i).doubleValue();
-            int binValue = (int) Math.round(value);
-            binValue = Math.max(0, Math.min(numBins, binValue));
-            repairedBinGenes[i] = DoubleGene.of(binValue, binMin, binMax);
-        }
-        DoubleChromosome repairedBinChromosome = DoubleChromosome.of(repairedBinGenes);
-        
-        // Repair rotation values: round to 0 or 1
-        DoubleGene[] repairedRotGenes = new DoubleGene[numItems];
-        for (int i = 0; i < numItems; i++) {
-            double value = rotChromosome.get(i).doubleValue();
-            int rotValue = (int) Math.round(value);
-            rotValue = Math.max(0, Math.min(1, rotValue));
-            repairedRotGenes[i] = DoubleGene.of(rotValue, rotMin, rotMax);
-        }
-        DoubleChromosome repairedRotChromosome = DoubleChromosome.of(repairedRotGenes);
+    static Phenotype<PackingGene, Double> repair(ProblemInstance problem, Phenotype<PackingGene, Double> phenotype, long generation) {
+        PackingChromosome chromosome = (PackingChromosome) phenotype.genotype().chromosome();
+        int numItems = problem.numItems();
+        RandomGenerator random = RandomRegistry.random();
         
-        // Repair coordinates: clamp to bin boundaries
-        DoubleGene[] repairedRowGenes = new DoubleGene[numItems];
-        DoubleGene[] repairedColGenes = new DoubleGene[numItems];
+        // Bin numbers and rotations are stored as int/bit, so they are always in range;
+        // what needs repairing is assignments the item cannot fit and the coordinates
+        PackingChromosome.Builder repaired = chromosome.toBuilder();
         
         for (int i = 0; i < numItems; i++) {
-            int binIndex = (int) Math.round(repairedBinGenes[i].doubleValue());
+            int binIndex = repaired.bin(i);
             
             // If item is in bin 0 (not stored), coordinates don't matter much
             if (binIndex == 0) {
-                repairedRowGenes[i] = rowChromosome.get(i);
-                repairedColGenes[i] = colChromosome.get(i);
-            } else {
-                // Clamp coordinates to the specific bin's dimensions
-                double binWidth = bins[binIndex - 1][0];
-                double binHeight = bins[binIndex - 1][1];
-                
-                double rowValue = rowChromosome.get(i).doubleValue();
-                double colValue = colChromosome.get(i).doubleValue();
-                
-                // Get item dimensions considering rotation
-                boolean rotated = (int) Math.round(repairedRotGenes[i].doubleValue()) == 1;
-                double itemWidth = items[i][0];
-                double itemHeight = items[i][1];
-                double effectiveWidth = rotated ? itemHeight : itemWidth;
-                double effectiveHeight = rotated ? itemWidth : itemHeight;
-                
-                // Clamp so item fits within bin
-                double maxRow = Math.max(0, binHeight - effectiveHeight);
-                double maxCol = Math.max(0, binWidth - effectiveWidth);
-                
-                rowValue = Math.max(0, Math.min(maxRow, rowValue));
-                colValue = Math.max(0, Math.min(maxCol, colValue));
-                
-                // Use original range bounds for gene creation
-                repairedRowGenes[i] = DoubleGene.of(rowValue, rowMin, rowMax);
-                repairedColGenes[i] = DoubleGene.of(colValue, colMin, colMax);
+                continue;
             }
+            
+            // Item is too big for this bin in either orientation: move it to a bin from the
+            // feasibility index, or out of storage if it fits nowhere
+            if (!problem.fitsAnyOrientation(i, binIndex - 1)) {
+                binIndex = problem.randomFeasibleBin(i, binIndex, random);
+                repaired.bin(i, binIndex);
+                if (binIndex == 0) {
+                    continue;
+                }
+            }
+            
+            // Only the other orientation fits this bin: rotate
+            if (!problem.fits(i, binIndex - 1, repaired.rotated(i))) {
+                repaired.rotated(i, !repaired.rotated(i));
+            }
+            
+            // Clamp coordinates to the specific bin's dimensions
+            double binWidth = problem.binWidth(binIndex - 1);
+            double binHeight = problem.binHeight(binIndex - 1);
+            
+            double rowValue = repaired.row(i);
+            double colValue = repaired.col(i);
+            
+            // Get item dimensions considering rotation
+            boolean rotated = repaired.rotated(i);
+            double effectiveWidth = problem.effectiveWidth(i, rotated);
+            double effectiveHeight = problem.effectiveHeight(i, rotated);
+            
+            // Clamp so item fits within bin (the fit table guarantees both bounds are >= 0)
+            double maxRow = binHeight - effectiveHeight;
+            double maxCol = binWidth - effectiveWidth;
+            
+            rowValue = Math.max(0, Math.min(maxRow, rowValue));
+            colValue = Math.max(0, Math.min(maxCol, colValue));
+            
+            repaired.position(i, rowValue, colValue);
         }
         
-        DoubleChromosome repairedRowChromosome = DoubleChromosome.of(repairedRowGenes);
-        DoubleChromosome repairedColChromosome = DoubleChromosome.of(repairedColGenes);
-        
-        // Create new genotype with repaired chromosomes
-        Genotype<DoubleGene> repairedGenotype = Genotype.of(
-            repairedBinChromosome,
-            repairedRowChromosome,
-            repairedColChromosome,
-            repairedRotChromosome
-        );
-        
         // Return new phenotype with repaired genotype
-        return Phenotype.of(repairedGenotype, generation);
+        return Phenotype.of(Genotype.of(repaired.build()), generation);
     }
     
     // ---------- Result Extraction ----------
-    private OptimizationResult extractResult(EvolutionResult<DoubleGene, Double> result) {
-        Genotype<DoubleGene> bestGenotype = result.bestPhenotype().genotype();
-        
-        // Extract the 4 chromosomes
-        DoubleChromosome binChromosome = (DoubleChromosome) bestGenotype.get(0);
-        DoubleChromosome rowChromosome = (DoubleChromosome) bestGenotype.get(1);
-        DoubleChromosome colChromosome = (DoubleChromosome) bestGenotype.get(2);
-        DoubleChromosome rotChromosome = (DoubleChromosome) bestGenotype.get(3);
+    private static OptimizationResult extractResult(ProblemInstance problem, double w,
+                                                    EvolutionResult<PackingGene, Double> result,
+                                                    StagedConstraint constraint) {
+        // Individuals may have been accepted at low fidelity and may overlap: report the fittest one
+        // that is strictly legal, unless placing the overall best geometrically does better
+        Phenotype<PackingGene, Double> best = result.bestPhenotype();
+        PackingChromosome chromosome = StagedConstraint.legalize(problem, (PackingChromosome) best.genotype().chromosome());
+        double bestFitness = fitness(problem, w, Genotype.of(chromosome));
+        
+        List<Phenotype<PackingGene, Double>> ranked = new ArrayList<>(result.population().asList());
+        ranked.sort(Comparator.comparing((Phenotype<PackingGene, Double> pt) -> pt.fitness()).reversed());
+        for (Phenotype<PackingGene, Double> candidate : ranked) {
+            if (candidate.fitness() <= bestFitness) {
+                break;
+            }
+            PackingChromosome candidateChromosome = (PackingChromosome) candidate.genotype().chromosome();
+            if (StagedConstraint.isLegal(problem, candidateChromosome)) {
+                chromosome = candidateChromosome;
+                bestFitness = candidate.fitness();
+                break;
+            }
+        }
+        return toResult(problem, chromosome, bestFitness,
+                        constraint.fullEvaluations(), constraint.savedEvaluations());
+    }
+
+    /** Result for a fixed placement of every item, as reported by {@link #optimize(ProblemInstance)}. */
+    static OptimizationResult toResult(ProblemInstance problem, PackingChromosome chromosome, double fitness,
+                                       long fullEvaluations, long savedEvaluations) {
+        int numItems = problem.numItems();
+        int numBins = problem.numBins();
         
         // Track items in each bin
         List<List<Integer>> itemsInBins = new ArrayList<>();
@@ -519,13 +549,12 @@ public class InventoryOptimizationWithPositions {
         List<ItemPlacement> itemPlacements = new ArrayList<>();
         
         for (int i = 0; i < numItems; i++) {
-            int binIndex = (int) Math.round(binChromosome.get(i).doubleValue());
-            binIndex = Math.max(0, Math.min(numBins, binIndex));
+            int binIndex = chromosome.bin(i);
             itemsInBins.get(binIndex).add(i);
             
-            double row = rowChromosome.get(i).doubleValue();
-            double col = colChromosome.get(i).doubleValue();
-            boolean rotated = Math.round(rotChromosome.get(i).doubleValue()) == 1;
+            double row = chromosome.row(i);
+            double col = chromosome.col(i);
+            boolean rotated = chromosome.rotated(i);
             
             itemPlacements.add(new ItemPlacement(i, binIndex, row, col, rotated));
         }
@@ -541,23 +570,26 @@ public class InventoryOptimizationWithPositions {
             double binItemsPrice = 0.0;
             
             for (int itemIdx : itemsInThisBin) {
-                binItemsArea += itemAreas[itemIdx];
-                binItemsPrice += items[itemIdx][2];
+                binItemsArea += problem.itemArea(itemIdx);
+                binItemsPrice += problem.itemPrice(itemIdx);
             }
             
             // Only count if it fits (should always fit due to constraint)
-            if (binItemsArea <= binAreas[binIdx - 1]) {
+            if (binItemsArea <= problem.binArea(binIdx - 1)) {
                 totalStoredArea += binItemsArea;
                 totalStoredPrice += binItemsPrice;
             }
         }
         
+        double totalInventoryPrice = problem.totalInventoryPrice();
+        double totalBinArea = problem.totalBinArea();
         double valuePercentage = (totalInventoryPrice > 0) ? (totalStoredPrice / totalInventoryPrice) * 100 : 0.0;
         double areaPercentage = (totalBinArea > 0) ? (totalStoredArea / totalBinArea) * 100 : 0.0;
         
-        return new OptimizationResult(itemsInBins, itemPlacements, result.bestFitness(), 
+        return new OptimizationResult(itemsInBins, itemPlacements, fitness, 
                                      totalStoredPrice, totalStoredArea,
-                                     valuePercentage, areaPercentage);
+                                     valuePercentage, areaPercentage,
+                                     fullEvaluations, savedEvaluations);
     }
 
     // ---------- Utility Method to Print Results ----------
@@ -625,6 +657,8 @@ public class InventoryOptimizationWithPositions {
         System.out.printf("Total Stored Area: %.2f (%.2f%%)%n", 
                 result.totalStoredArea, result.areaPercentage);
         System.out.printf("Fitness: %.6f%n", result.fitness);
+        System.out.printf("Full evaluations: %d (saved by staged evaluation: %d)%n",
+                result.fullEvaluations, result.savedEvaluations);
     }
     
     // ---------- Main (Example Usage) ----------
@@ -0,0 +1,43 @@
+package com.ga_inventory_opt;
+
+import java.util.random.RandomGenerator;
+
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.Recombinator;
+import io.jenetics.util.MSeq;
+import io.jenetics.util.RandomRegistry;
+
+/**
+ * Single-point crossover that cuts the bin, row, col and rotation genes at the same item index, so
+ * each item's genes are always inherited together from one parent. A generic crossover over separate
+ * per-field chromosomes pairs the bin of one parent with the position of the other and produces
+ * mostly infeasible placements.
+ */
+public class ItemAlignedCrossover extends Recombinator<PackingGene, Double> {
+
+    public ItemAlignedCrossover(double probability) {
+        super(probability, 2);
+    }
+
+    @Override
+    protected int recombine(MSeq<Phenotype<PackingGene, Double>> population, int[] individuals, long generation) {
+        RandomGenerator random = RandomRegistry.random();
+
+        PackingChromosome ch1 = (PackingChromosome) population.get(individuals[0]).genotype().chromosome();
+        PackingChromosome ch2 = (PackingChromosome) population.get(individuals[1]).genotype().chromosome();
+        int length = ch1.length();
+        if (length < 2) {
+            return 0;
+        }
+        int cut = 1 + random.nextInt(length - 1);
+
+        PackingChromosome.Builder child1 = ch1.toBuilder();
+        PackingChromosome.Builder child2 = ch2.toBuilder();
+        child1.swap(cut, length, child2);
+
+        population.set(individuals[0], Phenotype.of(Genotype.of(child1.build()), generation));
+        population.set(individuals[1], Phenotype.of(Genotype.of(child2.build()), generation));
+        return 2;
+    }
+}
@@ -0,0 +1,281 @@
+package com.ga_inventory_opt;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.random.RandomGenerator;
+
+import io.jenetics.Chromosome;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.RandomRegistry;
+
+/**
+ * Compact chromosome holding the placement of every item in one individual.
+ *
+ * Gene i describes item i. Instead of four DoubleChromosomes of boxed DoubleGenes (each carrying its
+ * own min/max), the genes are stored column-wise in primitive arrays: bin numbers as int[], row and
+ * col as double[] and rotation as a BitSet. Bounds come from the shared {@link ProblemInstance}.
+ * Coordinates stay in double precision so positions clamped by repair round-trip exactly and keep
+ * passing the constraint's bound checks.
+ *
+ * The arrays are never modified after construction; use {@link #toBuilder()} to derive a changed copy.
+ * Fitness, constraint and operator code reads the arrays through the primitive accessors; {@link #get(int)}
+ * materializes a {@link PackingGene} view for Jenetics' generic code paths.
+ */
+public final class PackingChromosome implements Chromosome<PackingGene> {
+    private final ProblemInstance problem;
+    private final int[] bins;
+    private final double[] rows;
+    private final double[] cols;
+    private final BitSet rotations;
+
+    private PackingChromosome(ProblemInstance problem, int[] bins, double[] rows, double[] cols, BitSet rotations) {
+        this.problem = problem;
+        this.bins = bins;
+        this.rows = rows;
+        this.cols = cols;
+        this.rotations = rotations;
+    }
+
+    /**
+     * Random chromosome drawn from the feasibility index: each item goes to bin 0 or one of the bins it
+     * fits in, in an orientation that fits that bin, at a position inside the bin. Items that fit no bin
+     * always start in bin 0.
+     */
+    public static PackingChromosome of(ProblemInstance problem) {
+        RandomGenerator random = RandomRegistry.random();
+        Builder builder = new Builder(problem);
+        for (int i = 0; i < problem.numItems(); i++) {
+            // Bin 0 is as likely as any single feasible bin
+            int choice = random.nextInt(problem.numFeasibleBins(i) + 1);
+            if (choice == 0) {
+                builder.set(i, 0,
+                        random.nextDouble() * problem.maxBinHeight(),
+                        random.nextDouble() * problem.maxBinWidth(),
+                        random.nextBoolean());
+            } else {
+                int bin = problem.randomFeasibleBin(i, 0, random);
+                boolean rotated = problem.randomFeasibleRotation(i, bin, random);
+                builder.set(i, bin, 0, 0, rotated).randomPosition(i, random);
+            }
+        }
+        return builder.build();
+    }
+
+    // ---------- Primitive Accessors ----------
+    public ProblemInstance problem() {
+        return problem;
+    }
+
+    public int bin(int item) {
+        return bins[item];
+    }
+
+    public double row(int item) {
+        return rows[item];
+    }
+
+    public double col(int item) {
+        return cols[item];
+    }
+
+    public boolean rotated(int item) {
+        return rotations.get(item);
+    }
+
+    /** Copies the bin numbers of all items into {@code target} starting at {@code offset}. */
+    public void copyBins(int[] target, int offset) {
+        System.arraycopy(bins, 0, target, offset, bins.length);
+    }
+
+    public Builder toBuilder() {
+        return new Builder(problem, bins.clone(), rows.clone(), cols.clone(), (BitSet) rotations.clone());
+    }
+
+    // ---------- Chromosome ----------
+    @Override
+    public PackingGene get(int index) {
+        return new PackingGene(problem, bins[index], rows[index], cols[index], rotations.get(index));
+    }
+
+    @Override
+    public int length() {
+        return bins.length;
+    }
+
+    @Override
+    public PackingChromosome newInstance() {
+        return of(problem);
+    }
+
+    @Override
+    public PackingChromosome newInstance(ISeq<PackingGene> genes) {
+        Builder builder = new Builder(problem, genes.length());
+        for (int i = 0; i < genes.length(); i++) {
+            PackingGene gene = genes.get(i);
+            builder.set(i, gene.bin(), gene.row(), gene.col(), gene.rotated());
+        }
+        return builder.build();
+    }
+
+    @Override
+    public boolean isValid() {
+        if (bins.length != problem.numItems()) {
+            return false;
+        }
+        for (int i = 0; i < bins.length; i++) {
+            if (bins[i] < 0 || bins[i] > problem.numBins()
+                    || rows[i] < 0 || rows[i] > problem.maxBinHeight()
+                    || cols[i] < 0 || cols[i] > problem.maxBinWidth()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof PackingChromosome other
+                && Arrays.equals(bins, other.bins)
+                && Arrays.equals(rows, other.rows)
+                && Arrays.equals(cols, other.cols)
+                && rotations.equals(other.rotations);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Arrays.hashCode(bins);
+        hash = 31 * hash + Arrays.hashCode(rows);
+        hash = 31 * hash + Arrays.hashCode(cols);
+        return 31 * hash + rotations.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "PackingChromosome[items=" + bins.length + "]";
+    }
+
+    // ---------- Builder ----------
+    /**
+     * Mutable working copy used by repair and the genetic operators. {@link #build()} hands the arrays
+     * over to the new chromosome without copying, so a builder cannot be modified after building.
+     */
+    public static final class Builder {
+        private final ProblemInstance problem;
+        private final int[] bins;
+        private final double[] rows;
+        private final double[] cols;
+        private final BitSet rotations;
+        private boolean built;
+
+        public Builder(ProblemInstance problem) {
+            this(problem, problem.numItems());
+        }
+
+        private Builder(ProblemInstance problem, int length) {
+            this(problem, new int[length], new double[length], new double[length], new BitSet(length));
+        }
+
+        private Builder(ProblemInstance problem, int[] bins, double[] rows, double[] cols, BitSet rotations) {
+            this.problem = problem;
+            this.bins = bins;
+            this.rows = rows;
+            this.cols = cols;
+            this.rotations = rotations;
+        }
+
+        public int bin(int item) {
+            return bins[item];
+        }
+
+        public double row(int item) {
+            return rows[item];
+        }
+
+        public double col(int item) {
+            return cols[item];
+        }
+
+        public boolean rotated(int item) {
+            return rotations.get(item);
+        }
+
+        public Builder set(int item, int bin, double row, double col, boolean rotated) {
+            checkNotBuilt();
+            bins[item] = bin;
+            rows[item] = row;
+            cols[item] = col;
+            rotations.set(item, rotated);
+            return this;
+        }
+
+        public Builder bin(int item, int bin) {
+            checkNotBuilt();
+            bins[item] = bin;
+            return this;
+        }
+
+        public Builder position(int item, double row, double col) {
+            checkNotBuilt();
+            rows[item] = row;
+            cols[item] = col;
+            return this;
+        }
+
+        public Builder rotated(int item, boolean rotated) {
+            checkNotBuilt();
+            rotations.set(item, rotated);
+            return this;
+        }
+
+        /** Moves the item to a random position inside its current bin, in its current orientation. */
+        public Builder randomPosition(int item, RandomGenerator random) {
+            checkNotBuilt();
+            int bin = bins[item];
+            if (bin == 0) {
+                return this;
+            }
+            boolean rotated = rotations.get(item);
+            double maxRow = Math.max(0, problem.binHeight(bin - 1) - problem.effectiveHeight(item, rotated));
+            double maxCol = Math.max(0, problem.binWidth(bin - 1) - problem.effectiveWidth(item, rotated));
+            rows[item] = random.nextDouble() * maxRow;
+            cols[item] = random.nextDouble() * maxCol;
+            return this;
+        }
+
+        /** Exchanges the genes of items in [from, to) with the same items of {@code other}. */
+        public Builder swap(int from, int to, Builder other) {
+            checkNotBuilt();
+            other.checkNotBuilt();
+            for (int i = from; i < to; i++) {
+                int bin = bins[i];
+                bins[i] = other.bins[i];
+                other.bins[i] = bin;
+
+                double row = rows[i];
+                rows[i] = other.rows[i];
+                other.rows[i] = row;
+
+                double col = cols[i];
+                cols[i] = other.cols[i];
+                other.cols[i] = col;
+
+                boolean rotated = rotations.get(i);
+                rotations.set(i, other.rotations.get(i));
+                other.rotations.set(i, rotated);
+            }
+            return this;
+        }
+
+        public PackingChromosome build() {
+            checkNotBuilt();
+            built = true;
+            return new PackingChromosome(problem, bins, rows, cols, rotations);
+        }
+
+        private void checkNotBuilt() {
+            if (built) {
+                throw new IllegalStateException("Builder already used to build a chromosome");
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.ga_inventory_opt;
+
+import java.util.random.RandomGenerator;
+
+import io.jenetics.Gene;
+import io.jenetics.util.RandomRegistry;
+
+/**
+ * One item's placement: bin number (0 = not in storage), row/col position and rotation.
+ *
+ * Genes are lightweight views handed out by {@link PackingChromosome#get(int)}; the chromosome itself
+ * stores all items in primitive arrays. Bounds are not stored per gene but taken from the shared
+ * {@link ProblemInstance}. The allele of a packing gene is the gene itself.
+ */
+public final class PackingGene implements Gene<PackingGene, PackingGene> {
+    private final ProblemInstance problem;
+    private final int bin;
+    private final double row;
+    private final double col;
+    private final boolean rotated;
+
+    PackingGene(ProblemInstance problem, int bin, double row, double col, boolean rotated) {
+        this.problem = problem;
+        this.bin = bin;
+        this.row = row;
+        this.col = col;
+        this.rotated = rotated;
+    }
+
+    public static PackingGene of(ProblemInstance problem, int bin, double row, double col, boolean rotated) {
+        return new PackingGene(problem, bin, row, col, rotated);
+    }
+
+    static PackingGene random(ProblemInstance problem, RandomGenerator random) {
+        return new PackingGene(problem,
+                random.nextInt(problem.numBins() + 1),
+                random.nextDouble() * problem.maxBinHeight(),
+                random.nextDouble() * problem.maxBinWidth(),
+                random.nextBoolean());
+    }
+
+    public int bin() {
+        return bin;
+    }
+
+    public double row() {
+        return row;
+    }
+
+    public double col() {
+        return col;
+    }
+
+    public boolean rotated() {
+        return rotated;
+    }
+
+    @Override
+    public PackingGene allele() {
+        return this;
+    }
+
+    @Override
+    public PackingGene newInstance() {
+        return random(problem, RandomRegistry.random());
+    }
+
+    @Override
+    public PackingGene newInstance(PackingGene value) {
+        return new PackingGene(problem, value.bin, value.row, value.col, value.rotated);
+    }
+
+    @Override
+    public boolean isValid() {
+        return bin >= 0 && bin <= problem.numBins()
+                && row >= 0 && row <= problem.maxBinHeight()
+                && col >= 0 && col <= problem.maxBinWidth();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof PackingGene other
+                && bin == other.bin
+                && Double.compare(row, other.row) == 0
+                && Double.compare(col, other.col) == 0
+                && rotated == other.rotated;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Integer.hashCode(bin);
+        hash = 31 * hash + Double.hashCode(row);
+        hash = 31 * hash + Double.hashCode(col);
+        return 31 * hash + Boolean.hashCode(rotated);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[bin=%d, row=%.2f, col=%.2f%s]", bin, row, col, rotated ? ", rotated" : "");
+    }
+}
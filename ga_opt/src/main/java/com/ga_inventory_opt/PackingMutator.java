@@ -0,0 +1,225 @@
+package com.ga_inventory_opt;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+import io.jenetics.AbstractAlterer;
+import io.jenetics.AltererResult;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.engine.EvolutionResult;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.MSeq;
+import io.jenetics.util.RandomRegistry;
+import io.jenetics.util.Seq;
+
+/**
+ * Packing-specific mutation. Instead of redrawing random doubles, each mutation applies one of a few
+ * moves that keep an item's bin, position and rotation genes consistent with each other:
+ * <ul>
+ *   <li>MOVE   - put a stored item into another bin at a random position that fits that bin</li>
+ *   <li>SWAP   - exchange the bins (and positions) of two items in different bins</li>
+ *   <li>ROTATE - flip the rotation of a stored item</li>
+ *   <li>EVICT  - take a stored item out of storage (bin 0), or insert an outside item into a bin</li>
+ * </ul>
+ * Moves only use bins and orientations from the problem's feasibility index; items that fit no bin are
+ * never picked.
+ * The probability of picking each operator adapts per generation: offspring are credited to the operator
+ * that produced them, and {@link #update(EvolutionResult)} rewards operators whose offspring passed the
+ * constraint unrepaired and did not lose fitness against their parent. Mutations of unevaluated parents
+ * (offspring of crossover in the same generation) have no fitness to compare against and are not credited.
+ */
+public class PackingMutator extends AbstractAlterer<PackingGene, Double> {
+    static final int MOVE = 0;
+    static final int SWAP = 1;
+    static final int ROTATE = 2;
+    static final int EVICT = 3;
+    static final int NUM_OPERATORS = 4;
+
+    // Adaptation parameters: floor per operator and smoothing of the success estimate
+    private static final double MIN_PROBABILITY = 0.05;
+    private static final double LEARNING_RATE = 0.3;
+
+    private final ProblemInstance problem;
+    private final int numItems;
+    private final int numBins;
+
+    private final double[] operatorProbabilities = new double[NUM_OPERATORS];
+    private final double[] operatorQuality = new double[NUM_OPERATORS];
+
+    // Offspring produced in the current generation -> (operator, parent fitness)
+    private final Map<Genotype<PackingGene>, Attempt> attempts = new IdentityHashMap<>();
+
+    private record Attempt(int operator, double parentFitness) {}
+
+    public PackingMutator(double probability, ProblemInstance problem) {
+        super(probability);
+        this.problem = problem;
+        this.numItems = problem.numItems();
+        this.numBins = problem.numBins();
+        for (int op = 0; op < NUM_OPERATORS; op++) {
+            operatorProbabilities[op] = 1.0 / NUM_OPERATORS;
+            operatorQuality[op] = 0.5;
+        }
+    }
+
+    // ---------- Alteration ----------
+    @Override
+    public synchronized AltererResult<PackingGene, Double> alter(Seq<Phenotype<PackingGene, Double>> population, long generation) {
+        RandomGenerator random = RandomRegistry.random();
+        MSeq<Phenotype<PackingGene, Double>> altered = MSeq.of(population);
+        int alterations = 0;
+
+        for (int i = 0; i < altered.size(); i++) {
+            if (random.nextDouble() >= _probability) {
+                continue;
+            }
+            Phenotype<PackingGene, Double> parent = altered.get(i);
+            int operator = pickOperator(random);
+            Genotype<PackingGene> child = mutate(parent.genotype(), operator, random);
+            if (child == null) {
+                continue; // Operator not applicable to this individual
+            }
+            if (parent.isEvaluated()) {
+                attempts.put(child, new Attempt(operator, parent.fitness()));
+            }
+            altered.set(i, Phenotype.of(child, generation));
+            alterations++;
+        }
+        return new AltererResult<>(altered.toISeq(), alterations);
+    }
+
+    private Genotype<PackingGene> mutate(Genotype<PackingGene> gt, int operator, RandomGenerator random) {
+        PackingChromosome chromosome = (PackingChromosome) gt.chromosome();
+
+        int item = problem.randomPlaceableItem(random);
+        if (item < 0) {
+            return null; // Nothing fits anywhere, there is nothing to search
+        }
+        int bin = chromosome.bin(item);
+        PackingChromosome.Builder child;
+
+        switch (operator) {
+            case MOVE -> {
+                int target = (bin == 0) ? 0 : problem.randomFeasibleBin(item, bin, random);
+                if (target == 0) {
+                    return null;
+                }
+                child = chromosome.toBuilder();
+                place(child, item, target, random);
+            }
+            case SWAP -> {
+                int other = problem.randomPlaceableItem(random);
+                int otherBin = chromosome.bin(other);
+                if (otherBin == bin
+                        || (otherBin != 0 && !problem.fitsAnyOrientation(item, otherBin - 1))
+                        || (bin != 0 && !problem.fitsAnyOrientation(other, bin - 1))) {
+                    return null;
+                }
+                child = chromosome.toBuilder()
+                        .bin(item, otherBin)
+                        .position(item, chromosome.row(other), chromosome.col(other))
+                        .bin(other, bin)
+                        .position(other, chromosome.row(item), chromosome.col(item));
+                keepFeasibleRotation(child, item, random);
+                keepFeasibleRotation(child, other, random);
+            }
+            case ROTATE -> {
+                boolean rotated = !chromosome.rotated(item);
+                if (bin == 0 || !problem.fits(item, bin - 1, rotated)) {
+                    return null;
+                }
+                child = chromosome.toBuilder().rotated(item, rotated);
+            }
+            case EVICT -> {
+                child = chromosome.toBuilder();
+                if (bin != 0) {
+                    child.bin(item, 0);
+                } else {
+                    place(child, item, problem.randomFeasibleBin(item, 0, random), random);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown operator " + operator);
+        }
+
+        return Genotype.of(child.build());
+    }
+
+    // Assign an item to a bin it fits, in a feasible orientation, at a random position inside the bin
+    private void place(PackingChromosome.Builder child, int item, int bin, RandomGenerator random) {
+        child.bin(item, bin);
+        keepFeasibleRotation(child, item, random);
+        child.randomPosition(item, random);
+    }
+
+    private void keepFeasibleRotation(PackingChromosome.Builder child, int item, RandomGenerator random) {
+        int bin = child.bin(item);
+        if (bin != 0 && !problem.fits(item, bin - 1, child.rotated(item))) {
+            child.rotated(item, problem.randomFeasibleRotation(item, bin, random));
+        }
+    }
+
+    // ---------- Operator Adaptation ----------
+    private int pickOperator(RandomGenerator random) {
+        double r = random.nextDouble();
+        double cumulative = 0.0;
+        for (int op = 0; op < NUM_OPERATORS - 1; op++) {
+            cumulative += operatorProbabilities[op];
+            if (r < cumulative) {
+                return op;
+            }
+        }
+        return NUM_OPERATORS - 1;
+    }
+
+    /**
+     * Credits the offspring of the last alteration against the evaluated population and re-weights
+     * the operators. Offspring that are missing from the population were replaced by the constraint's
+     * repair step (infeasible) and count as failures.
+     */
+    public synchronized void update(EvolutionResult<PackingGene, Double> result) {
+        if (attempts.isEmpty()) {
+            return;
+        }
+
+        double[] rewards = new double[NUM_OPERATORS];
+        int[] counts = new int[NUM_OPERATORS];
+        for (Attempt attempt : attempts.values()) {
+            counts[attempt.operator]++;
+        }
+
+        ISeq<Phenotype<PackingGene, Double>> population = result.population();
+        for (Phenotype<PackingGene, Double> phenotype : population) {
+            Attempt attempt = attempts.get(phenotype.genotype());
+            if (attempt == null || !phenotype.isEvaluated()) {
+                continue;
+            }
+            double fitness = phenotype.fitness();
+            if (fitness > attempt.parentFitness) {
+                rewards[attempt.operator] += 1.0;  // Feasible and improving
+            } else if (fitness == attempt.parentFitness) {
+                rewards[attempt.operator] += 0.5;  // Feasible, neutral
+            }
+        }
+        attempts.clear();
+
+        double totalQuality = 0.0;
+        for (int op = 0; op < NUM_OPERATORS; op++) {
+            if (counts[op] > 0) {
+                double successRate = rewards[op] / counts[op];
+                operatorQuality[op] = (1 - LEARNING_RATE) * operatorQuality[op] + LEARNING_RATE * successRate;
+            }
+            totalQuality += operatorQuality[op];
+        }
+
+        for (int op = 0; op < NUM_OPERATORS; op++) {
+            double share = (totalQuality == 0) ? 1.0 / NUM_OPERATORS : operatorQuality[op] / totalQuality;
+            operatorProbabilities[op] = MIN_PROBABILITY + (1 - NUM_OPERATORS * MIN_PROBABILITY) * share;
+        }
+    }
+
+    public synchronized double[] operatorProbabilities() {
+        return operatorProbabilities.clone();
+    }
+}
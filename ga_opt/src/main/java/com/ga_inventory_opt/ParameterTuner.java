@@ -0,0 +1,346 @@
+package com.ga_inventory_opt;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.OptimizationResult;
+import com.ga_inventory_opt.TuningProfile.Features;
+import com.ga_inventory_opt.TuningProfile.InstanceClass;
+import com.ga_inventory_opt.TuningProfile.Parameters;
+
+/**
+ * Offline tuner that finds GA parameters with the best quality for the time spent, per instance class,
+ * and writes them as a {@link TuningProfile} that {@link RunOptimizer} picks up.
+ *
+ * For every class (item units x bins x tightness) a few instances are generated, and recorded
+ * requests (RunOptimizer JSON inputs) are added to the class they fall into. Random parameter
+ * configurations then race by successive halving: all configurations run on the first instance, the
+ * better half goes on to twice as many instances, until the winner has run on all of them. Early rungs
+ * are cheap: a rung on a quarter of the instances runs a quarter of each configuration's generations,
+ * and only the last rung runs them in full. In each rung a configuration scores
+ * <pre>
+ *   mean(fitness / best fitness any configuration reached on the instance) - timeWeight * mean seconds
+ * </pre>
+ *
+ * Usage: ParameterTuner [--configs N] [--instances N] [--seed N] [--time-weight X] profile.json [recorded.json ...]
+ */
+public class ParameterTuner {
+    // Search space for the random configurations
+    static final int[] POPULATION_SIZES = {60, 120, 300, 600, 1200};
+    static final int[] GENERATIONS = {50, 100, 150, 300};
+    static final double[] MUTATION_RATES = {0.1, 0.2, 0.3, 0.4};
+    static final double[] CROSSOVER_RATES = {0.1, 0.3, 0.5, 0.7};
+    // Fewest generations a configuration runs in an early rung
+    static final int MIN_RUNG_GENERATIONS = 10;
+
+    private final double fitnessWeight;
+    private final double timeWeight;
+    private final Random random;
+
+    // One tuning instance; runs keep their raw fitness so qualities can be re-normalized as best values improve
+    record Instance(List<Item> items, List<Bin> bins) {}
+
+    private record Run(double fitness, double seconds) {}
+
+    /**
+     * One round of a race: how many configurations ran on how many instances with which share of their
+     * generations, and the leader after it.
+     */
+    record Rung(int configurations, int instances, double generationShare, Parameters best, double score) {}
+
+    public ParameterTuner(double fitnessWeight, double timeWeight, long seed) {
+        this.fitnessWeight = fitnessWeight;
+        this.timeWeight = timeWeight;
+        this.random = new Random(seed);
+    }
+
+    // ---------- Instance Classes ----------
+    /**
+     * Default classes, ordered so that the first match is the tightest fit: up to 60, 300 and any number
+     * of units; up to 4 and any number of bins; everything fits by area (tightness <= 1) or not.
+     */
+    static List<InstanceClass> defaultClasses() {
+        List<InstanceClass> classes = new ArrayList<>();
+        String[] unitNames = {"small", "medium", "large"};
+        int[] maxUnits = {60, 300, Integer.MAX_VALUE};
+        String[] binNames = {"few", "many"};
+        int[] maxBins = {4, Integer.MAX_VALUE};
+        String[] tightnessNames = {"loose", "tight"};
+        double[] maxTightness = {1.0, Double.MAX_VALUE};
+        for (int u = 0; u < maxUnits.length; u++) {
+            for (int b = 0; b < maxBins.length; b++) {
+                for (int t = 0; t < maxTightness.length; t++) {
+                    classes.add(new InstanceClass(unitNames[u] + "-" + binNames[b] + "-" + tightnessNames[t],
+                            maxUnits[u], maxBins[b], maxTightness[t]));
+                }
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Random instance inside the class bounds (and above the previous class's bounds): the unit count
+     * drawn from a handful of item types, and bins scaled to the target tightness. Open-ended classes
+     * stay close to their lower bound (at most a third above it), so that tuning the large class does
+     * not run each configuration on instances several times the size of the class boundary.
+     */
+    Instance generate(InstanceClass instanceClass, int minUnits, int minBins, double minTightness) {
+        int maxUnits = Math.min(instanceClass.maxUnits, minUnits + Math.max(minUnits / 3, 60));
+        int units = minUnits + 1 + random.nextInt(Math.max(1, maxUnits - minUnits));
+        int maxBins = Math.min(instanceClass.maxBins, Math.max(minBins + 4, 8));
+        int numBins = minBins + 1 + random.nextInt(Math.max(1, maxBins - minBins));
+        double maxTightness = Math.min(instanceClass.maxTightness, 2.0);
+        double tightness = minTightness + (0.3 + 0.7 * random.nextDouble()) * (maxTightness - minTightness);
+
+        int numTypes = 3 + random.nextInt(4);
+        double[][] types = new double[numTypes][];
+        for (int t = 0; t < numTypes; t++) {
+            double width = 2 + random.nextInt(29);
+            double height = 2 + random.nextInt(29);
+            types[t] = new double[]{width, height, Math.round(width * height * (0.5 + random.nextDouble()))};
+        }
+        List<Item> items = new ArrayList<>();
+        double itemArea = 0.0;
+        for (int i = 0; i < units; i++) {
+            double[] type = types[random.nextInt(numTypes)];
+            items.add(new Item(i + 1, type[0], type[1], type[2]));
+            itemArea += type[0] * type[1];
+        }
+
+        // Random bin shapes, scaled so that item area / bin area = tightness
+        double[] widths = new double[numBins];
+        double[] heights = new double[numBins];
+        double binArea = 0.0;
+        for (int b = 0; b < numBins; b++) {
+            widths[b] = 1 + random.nextDouble() * 4;
+            heights[b] = 1 + random.nextDouble() * 4;
+            binArea += widths[b] * heights[b];
+        }
+        double scale = Math.sqrt(itemArea / tightness / binArea);
+        List<Bin> bins = new ArrayList<>();
+        for (int b = 0; b < numBins; b++) {
+            bins.add(new Bin(b + 1, Math.ceil(widths[b] * scale), Math.ceil(heights[b] * scale)));
+        }
+        return new Instance(items, bins);
+    }
+
+    // ---------- Successive Halving ----------
+    Parameters randomConfiguration() {
+        return new Parameters(
+                POPULATION_SIZES[random.nextInt(POPULATION_SIZES.length)],
+                GENERATIONS[random.nextInt(GENERATIONS.length)],
+                MUTATION_RATES[random.nextInt(MUTATION_RATES.length)],
+                CROSSOVER_RATES[random.nextInt(CROSSOVER_RATES.length)]);
+    }
+
+    /**
+     * Races the configurations on the instances, records the winner and its score in the class and
+     * returns the rungs of the race in order.
+     */
+    List<Rung> race(InstanceClass instanceClass, List<Parameters> configurations, List<Instance> instances) {
+        List<Rung> rungs = new ArrayList<>();
+        if (instances.isEmpty()) {
+            instanceClass.parameters = RunOptimizer.DEFAULT_PARAMETERS;
+            return rungs;
+        }
+        // One optimizer seed per instance, shared by all configurations, so the race (and the profile)
+        // is reproducible and configurations are compared on the same random streams
+        long[] seeds = new long[instances.size()];
+        for (int k = 0; k < seeds.length; k++) {
+            seeds[k] = random.nextLong();
+        }
+
+        List<Parameters> survivors = new ArrayList<>(configurations);
+        Map<Parameters, List<Run>> runs;
+        double[] bestFitness;
+        int used = 1;
+        while (true) {
+            // Each rung runs its share of the generations from scratch, so its runs are comparable
+            double share = (double) used / instances.size();
+            runs = new HashMap<>();
+            bestFitness = new double[used];
+            for (Parameters parameters : survivors) {
+                List<Run> done = new ArrayList<>();
+                for (int k = 0; k < used; k++) {
+                    Run run = run(budgeted(parameters, share), instances.get(k), seeds[k]);
+                    done.add(run);
+                    bestFitness[k] = Math.max(bestFitness[k], run.fitness);
+                }
+                runs.put(parameters, done);
+            }
+            Map<Parameters, List<Run>> rungRuns = runs;
+            double[] rungBest = bestFitness;
+            survivors.sort(Comparator.comparingDouble((Parameters p) -> score(rungRuns.get(p), rungBest)).reversed());
+            rungs.add(new Rung(survivors.size(), used, share, survivors.get(0), score(runs.get(survivors.get(0)), bestFitness)));
+            if (used == instances.size()) {
+                break;
+            }
+            survivors = new ArrayList<>(survivors.subList(0, (survivors.size() + 1) / 2));
+            used = Math.min(instances.size(), 2 * used);
+        }
+
+        Parameters winner = survivors.get(0);
+        instanceClass.parameters = winner;
+        instanceClass.score = score(runs.get(winner), bestFitness);
+        instanceClass.seconds = runs.get(winner).stream().mapToDouble(Run::seconds).average().orElse(0);
+        return rungs;
+    }
+
+    // The configuration with its generations cut to the rung's share
+    static Parameters budgeted(Parameters parameters, double share) {
+        int generations = (int) Math.ceil(parameters.maxGenerations() * share);
+        return new Parameters(parameters.populationSize(),
+                Math.min(parameters.maxGenerations(), Math.max(MIN_RUNG_GENERATIONS, generations)),
+                parameters.mutationRate(), parameters.crossoverRate());
+    }
+
+    private Run run(Parameters parameters, Instance instance, long seed) {
+        InventoryOptimizationWithPositions optimizer = new InventoryOptimizationWithPositions();
+        optimizer.setWeightW(fitnessWeight);
+        parameters.applyTo(optimizer);
+        optimizer.setSeed(seed);
+        long start = System.nanoTime();
+        OptimizationResult result = optimizer.optimize(instance.items, instance.bins);
+        return new Run(result.fitness, (System.nanoTime() - start) / 1e9);
+    }
+
+    private double score(List<Run> runs, double[] bestFitness) {
+        double quality = 0.0;
+        double seconds = 0.0;
+        for (int k = 0; k < runs.size(); k++) {
+            Run run = runs.get(k);
+            quality += bestFitness[k] > 0 ? run.fitness / bestFitness[k] : 1.0;
+            seconds += run.seconds;
+        }
+        return (quality - timeWeight * seconds) / runs.size();
+    }
+
+    // ---------- Tuning ----------
+    /**
+     * Tunes every class: generated instances plus the recorded instances that fall into the class.
+     * Classes are matched in order, so each class generates instances above the bounds of the class
+     * before it in each dimension. {@code progress} gets the rungs of each class as soon as its race ends.
+     */
+    TuningProfile tune(List<InstanceClass> classes, List<Instance> recorded, int numConfigurations, int generatedPerClass,
+                       BiConsumer<InstanceClass, List<Rung>> progress) {
+        TuningProfile profile = new TuningProfile();
+        profile.createdAt = Instant.now().toString();
+        profile.timeWeight = timeWeight;
+
+        Set<Instance> assigned = new LinkedHashSet<>();
+        for (InstanceClass instanceClass : classes) {
+            List<Instance> instances = new ArrayList<>();
+            for (Instance instance : recorded) {
+                if (!assigned.contains(instance) && instanceClass.matches(Features.of(instance.items, instance.bins))) {
+                    instances.add(instance);
+                    assigned.add(instance);
+                }
+            }
+            int minUnits = lowerBound(classes, instanceClass, c -> c.maxUnits);
+            int minBins = lowerBound(classes, instanceClass, c -> c.maxBins);
+            double minTightness = classes.stream()
+                    .filter(c -> c.maxTightness < instanceClass.maxTightness)
+                    .mapToDouble(c -> c.maxTightness).max().orElse(0.0);
+            for (int k = 0; k < generatedPerClass; k++) {
+                instances.add(generate(instanceClass, minUnits, minBins, minTightness));
+            }
+
+            // Distinct configurations, at most the whole search space (which contains the defaults)
+            Set<Parameters> configurations = new LinkedHashSet<>();
+            configurations.add(RunOptimizer.DEFAULT_PARAMETERS);
+            int limit = Math.min(numConfigurations, POPULATION_SIZES.length * GENERATIONS.length
+                    * MUTATION_RATES.length * CROSSOVER_RATES.length);
+            while (configurations.size() < limit) {
+                configurations.add(randomConfiguration());
+            }
+            progress.accept(instanceClass, race(instanceClass, new ArrayList<>(configurations), instances));
+            profile.classes.add(instanceClass);
+        }
+        return profile;
+    }
+
+    private static int lowerBound(List<InstanceClass> classes, InstanceClass instanceClass,
+                                  ToIntFunction<InstanceClass> bound) {
+        int own = bound.applyAsInt(instanceClass);
+        return classes.stream().mapToInt(bound).filter(b -> b < own).max().orElse(0);
+    }
+
+    static Instance fromInput(RunOptimizer.OptimizationInput input) {
+        List<Item> items = new ArrayList<>();
+        for (RunOptimizer.ItemType itemType : input.itemTypes) {
+            for (int q = 0; q < itemType.quantity; q++) {
+                items.add(new Item(items.size() + 1, itemType.width, itemType.height, itemType.price));
+            }
+        }
+        List<Bin> bins = new ArrayList<>();
+        for (RunOptimizer.BinType binType : input.binTypes) {
+            bins.add(new Bin(binType.number, binType.width, binType.height));
+        }
+        return new Instance(items, bins);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int numConfigurations = 16;
+        int generatedPerClass = 4;
+        long seed = 42;
+        double timeWeight = 0.02;
+        Path output = null;
+        List<Instance> recorded = new ArrayList<>();
+
+        ObjectMapper mapper = new ObjectMapper();
+        for (int a = 0; a < args.length; a++) {
+            switch (args[a]) {
+                case "--configs" -> numConfigurations = Integer.parseInt(args[++a]);
+                case "--instances" -> generatedPerClass = Integer.parseInt(args[++a]);
+                case "--seed" -> seed = Long.parseLong(args[++a]);
+                case "--time-weight" -> timeWeight = Double.parseDouble(args[++a]);
+                default -> {
+                    if (output == null) {
+                        output = Paths.get(args[a]);
+                    } else {
+                        recorded.add(fromInput(mapper.readValue(Paths.get(args[a]).toFile(), RunOptimizer.OptimizationInput.class)));
+                    }
+                }
+            }
+        }
+        if (output == null) {
+            System.err.println("Usage: ParameterTuner [--configs N] [--instances N] [--seed N] [--time-weight X] profile.json [recorded.json ...]");
+            System.exit(1);
+        }
+
+        ParameterTuner tuner = new ParameterTuner(0.75, timeWeight, seed);
+        TuningProfile profile = tuner.tune(defaultClasses(), recorded, numConfigurations, generatedPerClass,
+                (instanceClass, rungs) -> {
+                    for (Rung rung : rungs) {
+                        System.out.printf("  %-24s %2d configurations on %d instances at %3.0f%% of the generations,"
+                                + " best: %s (score %.4f)%n",
+                                instanceClass.name, rung.configurations, rung.instances, 100 * rung.generationShare,
+                                rung.best, rung.score);
+                    }
+                });
+        profile.save(output);
+
+        System.out.println("\n=== TUNING PROFILE ===");
+        for (InstanceClass instanceClass : profile.classes) {
+            System.out.printf("%-24s %s  score=%.4f  %.2fs%n",
+                    instanceClass.name, instanceClass.parameters, instanceClass.score, instanceClass.seconds);
+        }
+        System.out.println("Written to " + output.toAbsolutePath());
+    }
+}
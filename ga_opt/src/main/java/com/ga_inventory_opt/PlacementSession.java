@@ -0,0 +1,477 @@
+package com.ga_inventory_opt;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.ItemPlacement;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.OptimizationResult;
+
+import io.jenetics.Genotype;
+
+/**
+ * Stateful placement of a changing inventory, for items that arrive and leave one at a time.
+ *
+ * Instead of re-running {@link InventoryOptimizationWithPositions#optimize(ProblemInstance)} for every
+ * event, each change is applied immediately and locally:
+ * <ul>
+ *   <li>{@link #add(Item)} puts the new item into the best free rectangle of any bin (best short side
+ *       fit, either orientation), or into the waiting list (bin 0) if it fits nowhere</li>
+ *   <li>{@link #remove(int)} frees the item's space and offers it to the waiting items, by price</li>
+ *   <li>{@link #resizeBin(int, double, double)} relocates only the items the new size cuts off</li>
+ * </ul>
+ * Free space is tracked per bin by a {@link FreeRectangleIndex}. Items already in storage never move
+ * on add or remove, so the layout stays stable.
+ *
+ * Local placement fragments the free space over time. When the fragmentation of the free area crosses
+ * the threshold and items are waiting that fit some bin, a bounded GA run (small population, few
+ * generations) is started in the background from the current layout. Its layout is adopted only if it
+ * scores better and moves at most {@code maxRelocations} stored items; if the session changed while it
+ * ran, it is discarded and the next event re-triggers it. Every relocation is counted in
+ * {@link #movedItems()}; stored items a resize leaves without room are counted in
+ * {@link #evictedItems()} instead.
+ */
+public class PlacementSession implements AutoCloseable {
+    private final double w;
+
+    // Current state, keyed by item and bin number
+    private final Map<Integer, Item> items = new LinkedHashMap<>();
+    private final Map<Integer, Slot> slots = new LinkedHashMap<>();
+    private final Map<Integer, Integer> itemIndices = new HashMap<>(); // item number -> index in items()
+    private final List<Bin> bins = new ArrayList<>();
+    private final List<FreeRectangleIndex> freeSpace = new ArrayList<>();
+
+    // Refinement configuration
+    private double fragmentationThreshold = 0.5;
+    private int refinementPopulationSize = 40;
+    private int refinementGenerations = 30;
+    private int maxRelocations = 10;
+
+    // Bumped on every change, so a refinement can tell whether its snapshot is still current
+    private long version;
+    private long movedItems;
+    private long evictedItems;
+    private long refinements;
+    private ExecutorService refinementExecutor;
+    private Future<?> refinement;
+
+    // Placement of one item: bin number (0 = waiting, not in storage), position and rotation
+    private record Slot(int bin, double row, double col, boolean rotated) {
+        static final Slot WAITING = new Slot(0, 0, 0, false);
+    }
+
+    public PlacementSession(List<Bin> binList, double w) {
+        this.w = w;
+        for (Bin bin : binList) {
+            bins.add(bin);
+            freeSpace.add(new FreeRectangleIndex(bin.width, bin.height));
+        }
+    }
+
+    /**
+     * Session continuing from an optimization result for the given items and bins. The placements of
+     * the result are taken over as they are; they must not overlap.
+     */
+    public PlacementSession(List<Item> itemList, List<Bin> binList, OptimizationResult initial, double w) {
+        this(binList, w);
+        for (ItemPlacement placement : initial.itemPlacements) {
+            Item item = itemList.get(placement.itemIdx);
+            items.put(item.number, item);
+            itemIndices.put(item.number, items.size() - 1);
+            Slot slot = placement.binIdx == 0 ? Slot.WAITING
+                    : new Slot(placement.binIdx, placement.row, placement.col, placement.rotated);
+            slots.put(item.number, slot);
+        }
+        for (int b = 1; b <= bins.size(); b++) {
+            rebuildFreeSpace(b);
+        }
+    }
+
+    // ---------- Configuration Methods ----------
+    public synchronized void setFragmentationThreshold(double threshold) {
+        this.fragmentationThreshold = threshold;
+    }
+
+    public synchronized void setRefinementBudget(int populationSize, int generations) {
+        this.refinementPopulationSize = populationSize;
+        this.refinementGenerations = generations;
+    }
+
+    public synchronized void setMaxRelocations(int maxRelocations) {
+        this.maxRelocations = maxRelocations;
+    }
+
+    // ---------- Events ----------
+    /** Places a new item. Returns its placement; bin 0 if there is no free space for it yet. */
+    public synchronized ItemPlacement add(Item item) {
+        if (items.containsKey(item.number)) {
+            throw new IllegalArgumentException("Item " + item.number + " is already in the session");
+        }
+        items.put(item.number, item);
+        itemIndices.put(item.number, items.size() - 1);
+        Slot slot = findSlot(item);
+        place(item, slot);
+        changed();
+        return placement(item.number);
+    }
+
+    /** Removes an item. Waiting items that now fit are placed into the freed space. */
+    public synchronized boolean remove(int itemId) {
+        Item item = items.remove(itemId);
+        if (item == null) {
+            return false;
+        }
+        Slot slot = slots.remove(itemId);
+        itemIndices.clear();
+        for (Integer number : items.keySet()) {
+            itemIndices.put(number, itemIndices.size());
+        }
+        if (slot.bin != 0) {
+            rebuildFreeSpace(slot.bin);
+            placeWaitingItems();
+        }
+        changed();
+        return true;
+    }
+
+    /**
+     * Changes the size of a bin. Items that no longer lie inside it are relocated (elsewhere in the same
+     * bin, then in other bins, else to the waiting list); everything else stays where it is. Returns
+     * the number of items that moved to a new position; cut-off items that end up waiting are not
+     * included.
+     */
+    public synchronized int resizeBin(int binNumber, double width, double height) {
+        int bin = binIndex(binNumber);
+        bins.set(bin - 1, new Bin(binNumber, width, height));
+
+        // Items cut off by the new bounds
+        List<Item> cutOff = new ArrayList<>();
+        for (Map.Entry<Integer, Slot> entry : slots.entrySet()) {
+            Slot slot = entry.getValue();
+            Item item = items.get(entry.getKey());
+            if (slot.bin == bin && (slot.row + effectiveHeight(item, slot.rotated) > height + FreeRectangleIndex.EPS
+                    || slot.col + effectiveWidth(item, slot.rotated) > width + FreeRectangleIndex.EPS)) {
+                cutOff.add(item);
+            }
+        }
+        for (Item item : cutOff) {
+            slots.put(item.number, Slot.WAITING);
+        }
+        rebuildFreeSpace(bin);
+
+        // Relocate the cut-off items by price, then let waiting items use any space that was gained
+        cutOff.sort(Comparator.comparingDouble((Item item) -> item.price).reversed());
+        int moved = 0;
+        for (Item item : cutOff) {
+            Slot slot = findSlot(item);
+            place(item, slot);
+            if (slot.bin != 0) {
+                moved++;
+            }
+        }
+        placeWaitingItems();
+
+        movedItems += moved;
+        evictedItems += cutOff.size() - moved;
+        changed();
+        return moved;
+    }
+
+    // ---------- State ----------
+    public synchronized List<Item> items() {
+        return new ArrayList<>(items.values());
+    }
+
+    public synchronized List<Bin> bins() {
+        return new ArrayList<>(bins);
+    }
+
+    /** Current placement of the item; null if the item is not in the session. */
+    public synchronized ItemPlacement placement(int itemId) {
+        Slot slot = slots.get(itemId);
+        if (slot == null) {
+            return null;
+        }
+        return new ItemPlacement(itemIndices.get(itemId), slot.bin, slot.row, slot.col, slot.rotated);
+    }
+
+    /**
+     * Current layout in the form {@link InventoryOptimizationWithPositions#optimize} reports it, with
+     * item indices referring to {@link #items()}.
+     */
+    public synchronized OptimizationResult snapshot() {
+        ProblemInstance problem = ProblemInstance.of(items(), bins);
+        PackingChromosome chromosome = toChromosome(problem);
+        double fitness = InventoryOptimizationWithPositions.fitness(problem, w, Genotype.of(chromosome));
+        return InventoryOptimizationWithPositions.toResult(problem, chromosome, fitness, 0, 0);
+    }
+
+    /**
+     * Fragmentation of the free space over all bins: the share of the free area that lies outside the
+     * largest free rectangle of its bin. 0 when every bin's free space is a single rectangle.
+     */
+    public synchronized double fragmentation() {
+        double freeArea = 0.0;
+        double largest = 0.0;
+        for (FreeRectangleIndex index : freeSpace) {
+            if (index.freeArea() > FreeRectangleIndex.EPS) {
+                freeArea += index.freeArea();
+                largest += Math.min(index.freeArea(), index.largestFreeRectangle());
+            }
+        }
+        return freeArea <= FreeRectangleIndex.EPS ? 0.0 : 1 - largest / freeArea;
+    }
+
+    /** Stored items relocated so far, by bin resizes and refinements. */
+    public synchronized long movedItems() {
+        return movedItems;
+    }
+
+    /** Stored items sent to the waiting list so far because a bin resize left no room for them. */
+    public synchronized long evictedItems() {
+        return evictedItems;
+    }
+
+    // Background refinements started so far
+    synchronized long refinements() {
+        return refinements;
+    }
+
+    // ---------- Refinement ----------
+    /**
+     * Runs one bounded refinement now, on the calling thread. Returns the number of stored items it moved,
+     * or 0 if its layout was not adopted.
+     */
+    public int refine() {
+        Refinement refinement;
+        synchronized (this) {
+            if (!hasPlaceableWaitingItem()) {
+                return 0; // Everything that fits any bin is stored already
+            }
+            refinement = startRefinement();
+        }
+        return refinement.run();
+    }
+
+    /** Waits for a background refinement, if one is running. */
+    public void awaitRefinement() throws InterruptedException {
+        Future<?> pending;
+        synchronized (this) {
+            pending = refinement;
+        }
+        if (pending != null) {
+            try {
+                pending.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Refinement failed", e.getCause());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (refinementExecutor != null) {
+            refinementExecutor.shutdownNow();
+        }
+    }
+
+    private void changed() {
+        version++;
+        boolean running = refinement != null && !refinement.isDone();
+        if (running || fragmentation() <= fragmentationThreshold || !hasPlaceableWaitingItem()) {
+            return; // Refinement can only help when items are waiting for space they could use
+        }
+        if (refinementExecutor == null) {
+            refinementExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "placement-refinement");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        Refinement task = startRefinement();
+        refinement = refinementExecutor.submit(task::run);
+        refinements++;
+    }
+
+    // A waiting item that fits no bin in either orientation can never be stored, whatever the layout
+    private boolean hasPlaceableWaitingItem() {
+        for (Map.Entry<Integer, Slot> entry : slots.entrySet()) {
+            if (entry.getValue().bin != 0) {
+                continue;
+            }
+            Item item = items.get(entry.getKey());
+            for (Bin bin : bins) {
+                if ((item.width <= bin.width && item.height <= bin.height)
+                        || (item.height <= bin.width && item.width <= bin.height)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Snapshot of the session for one refinement run; adopted in run() only if nothing changed meanwhile
+    private Refinement startRefinement() {
+        List<Item> itemList = items();
+        ProblemInstance problem = ProblemInstance.of(itemList, bins);
+        InventoryOptimizationWithPositions optimizer = new InventoryOptimizationWithPositions();
+        optimizer.setWeightW(w);
+        optimizer.setPopulationSize(refinementPopulationSize);
+        optimizer.setMaxGenerations(refinementGenerations);
+        return new Refinement(version, itemList, problem, toChromosome(problem), optimizer, maxRelocations);
+    }
+
+    private final class Refinement {
+        private final long version;
+        private final List<Item> itemList;
+        private final ProblemInstance problem;
+        private final PackingChromosome current;
+        private final InventoryOptimizationWithPositions optimizer;
+        private final int maxRelocations;
+
+        Refinement(long version, List<Item> itemList, ProblemInstance problem, PackingChromosome current,
+                   InventoryOptimizationWithPositions optimizer, int maxRelocations) {
+            this.version = version;
+            this.itemList = itemList;
+            this.problem = problem;
+            this.current = current;
+            this.optimizer = optimizer;
+            this.maxRelocations = maxRelocations;
+        }
+
+        int run() {
+            OptimizationResult result = optimizer.optimize(problem, current);
+
+            // Strict geometry for the free-space index: legalize keeps every position that is already free
+            PackingChromosome.Builder builder = new PackingChromosome.Builder(problem);
+            for (ItemPlacement placement : result.itemPlacements) {
+                builder.set(placement.itemIdx, placement.binIdx, placement.row, placement.col, placement.rotated);
+            }
+            PackingChromosome refined = StagedConstraint.legalize(problem, builder.build());
+
+            double currentFitness = InventoryOptimizationWithPositions.fitness(problem, w, Genotype.of(current));
+            double refinedFitness = InventoryOptimizationWithPositions.fitness(problem, w, Genotype.of(refined));
+            int moved = 0;
+            for (int i = 0; i < problem.numItems(); i++) {
+                if (current.bin(i) != 0 && (refined.bin(i) != current.bin(i) || refined.row(i) != current.row(i)
+                        || refined.col(i) != current.col(i) || refined.rotated(i) != current.rotated(i))) {
+                    moved++;
+                }
+            }
+            if (refinedFitness <= currentFitness || moved > maxRelocations) {
+                return 0;
+            }
+
+            synchronized (PlacementSession.this) {
+                if (PlacementSession.this.version != version) {
+                    return 0; // Stale: the session changed while the GA ran
+                }
+                for (int i = 0; i < itemList.size(); i++) {
+                    int bin = refined.bin(i);
+                    slots.put(itemList.get(i).number, bin == 0 ? Slot.WAITING
+                            : new Slot(bin, refined.row(i), refined.col(i), refined.rotated(i)));
+                }
+                for (int b = 1; b <= bins.size(); b++) {
+                    rebuildFreeSpace(b);
+                }
+                movedItems += moved;
+                PlacementSession.this.version++;
+                return moved;
+            }
+        }
+    }
+
+    // ---------- Placement Helpers ----------
+    // Best free rectangle over all bins and both orientations, or WAITING
+    private Slot findSlot(Item item) {
+        Slot best = Slot.WAITING;
+        double bestShortSide = Double.POSITIVE_INFINITY;
+        double bestLongSide = Double.POSITIVE_INFINITY;
+        for (int b = 1; b <= bins.size(); b++) {
+            for (int orientation = 0; orientation < 2; orientation++) {
+                boolean rotated = orientation == 1;
+                double[] spot = freeSpace.get(b - 1).find(effectiveHeight(item, rotated), effectiveWidth(item, rotated));
+                if (spot != null && (spot[2] < bestShortSide || (spot[2] == bestShortSide && spot[3] < bestLongSide))) {
+                    best = new Slot(b, spot[0], spot[1], rotated);
+                    bestShortSide = spot[2];
+                    bestLongSide = spot[3];
+                }
+            }
+        }
+        return best;
+    }
+
+    private void place(Item item, Slot slot) {
+        slots.put(item.number, slot);
+        if (slot.bin != 0) {
+            freeSpace.get(slot.bin - 1).occupy(slot.row, slot.col,
+                    effectiveHeight(item, slot.rotated), effectiveWidth(item, slot.rotated));
+        }
+    }
+
+    private void placeWaitingItems() {
+        List<Item> waiting = new ArrayList<>();
+        for (Map.Entry<Integer, Slot> entry : slots.entrySet()) {
+            if (entry.getValue().bin == 0) {
+                waiting.add(items.get(entry.getKey()));
+            }
+        }
+        waiting.sort(Comparator.comparingDouble((Item item) -> item.price).reversed());
+        for (Item item : waiting) {
+            Slot slot = findSlot(item);
+            if (slot.bin != 0) {
+                place(item, slot);
+            }
+        }
+    }
+
+    private void rebuildFreeSpace(int bin) {
+        List<double[]> occupied = new ArrayList<>();
+        for (Map.Entry<Integer, Slot> entry : slots.entrySet()) {
+            Slot slot = entry.getValue();
+            if (slot.bin == bin) {
+                Item item = items.get(entry.getKey());
+                occupied.add(new double[]{slot.row, slot.col,
+                        effectiveHeight(item, slot.rotated), effectiveWidth(item, slot.rotated)});
+            }
+        }
+        Bin size = bins.get(bin - 1);
+        freeSpace.get(bin - 1).rebuild(size.width, size.height, occupied);
+    }
+
+    private PackingChromosome toChromosome(ProblemInstance problem) {
+        PackingChromosome.Builder builder = new PackingChromosome.Builder(problem);
+        int i = 0;
+        for (Integer number : items.keySet()) {
+            Slot slot = slots.get(number);
+            builder.set(i++, slot.bin, slot.row, slot.col, slot.rotated);
+        }
+        return builder.build();
+    }
+
+    private int binIndex(int binNumber) {
+        for (int b = 0; b < bins.size(); b++) {
+            if (bins.get(b).number == binNumber) {
+                return b + 1;
+            }
+        }
+        throw new IllegalArgumentException("Unknown bin " + binNumber);
+    }
+
+    private static double effectiveWidth(Item item, boolean rotated) {
+        return rotated ? item.height : item.width;
+    }
+
+    private static double effectiveHeight(Item item, boolean rotated) {
+        return rotated ? item.width : item.height;
+    }
+}
@@ -0,0 +1,325 @@
+package com.ga_inventory_opt;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.OptimizationResult;
+
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.engine.EvolutionInterceptor;
+import io.jenetics.engine.EvolutionResult;
+import io.jenetics.engine.EvolutionStart;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.MSeq;
+
+/**
+ * Races several optimizer configurations on the same problem under one wall-clock budget.
+ *
+ * A greedy baseline (items by price, each into the best free rectangle of any bin) runs first; its
+ * layout becomes the shared incumbent and seeds the first generation of every GA strategy. The GA
+ * strategies then run concurrently, each with its own population size, operator rates and internal
+ * fitness weight. After every generation a strategy compares its best score, measured with the
+ * target weight, against the shared incumbent:
+ * <ul>
+ *   <li>if it is ahead, it becomes the incumbent</li>
+ *   <li>if it trails, the incumbent replaces the worst individual of its next generation (once per new
+ *       incumbent), so it can breed from the best layout found so far</li>
+ *   <li>if it trails by more than {@code CANCEL_MARGIN} after the grace period and has not improved for
+ *       {@code CANCEL_PATIENCE} generations, it is cancelled so the others get the cores</li>
+ * </ul>
+ * A strategy's best is only placed geometrically (and shared) when its surrogate score beats the
+ * incumbent, so the incumbent is always a legal layout. At the deadline every strategy abandons the
+ * generation it is in at its next evaluation or constraint check (see {@link GenerationDeadline}) and
+ * reports its best finished generation. {@link #optimize} waits for that: it returns shortly after the
+ * deadline, leaves no strategy running and reports the evaluation counts of all strategies together.
+ */
+public class PortfolioOptimizer {
+    // Share of the budget before any strategy can be cancelled
+    static final double GRACE_FRACTION = 0.25;
+    // Score gap to the incumbent and generations without improvement that cancel a strategy
+    static final double CANCEL_MARGIN = 0.02;
+    static final int CANCEL_PATIENCE = 20;
+
+    private final double targetW;
+    private final List<Strategy> strategies;
+    private final ThreadFactory threadFactory;
+    private volatile List<Outcome> lastOutcomes = List.of();
+
+    /** One GA configuration of the portfolio. */
+    public record Strategy(String name, int populationSize, int maxGenerations,
+                           double mutationRate, double crossoverRate, double w) {}
+
+    /**
+     * How a strategy did in the last run: best score with the target weight, generations run, how often
+     * the incumbent was injected into its population, whether it was cancelled.
+     */
+    public record Outcome(String name, double fitness, long generations, long injections, boolean cancelled) {}
+
+    public PortfolioOptimizer(double targetW) {
+        this(targetW, defaultStrategies(targetW));
+    }
+
+    public PortfolioOptimizer(double targetW, List<Strategy> strategies) {
+        this(targetW, strategies, runnable -> {
+            Thread thread = new Thread(runnable, "portfolio-strategy");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Strategies run on threads from threadFactory, one per strategy and run
+    PortfolioOptimizer(double targetW, List<Strategy> strategies, ThreadFactory threadFactory) {
+        this.targetW = targetW;
+        this.strategies = List.copyOf(strategies);
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Default mix: a large population, a small long-running one, a more explorative one and two that
+     * search with the weight shifted towards value or area.
+     */
+    public static List<Strategy> defaultStrategies(double targetW) {
+        return List.of(
+                new Strategy("large-population", 400, Integer.MAX_VALUE, 0.2, 0.3, targetW),
+                new Strategy("long-run", 80, Integer.MAX_VALUE, 0.2, 0.3, targetW),
+                new Strategy("explorative", 150, Integer.MAX_VALUE, 0.4, 0.5, targetW),
+                new Strategy("value-first", 150, Integer.MAX_VALUE, 0.2, 0.3, Math.min(1.0, targetW + 0.15)),
+                new Strategy("area-first", 150, Integer.MAX_VALUE, 0.2, 0.3, Math.max(0.0, targetW - 0.15)));
+    }
+
+    public OptimizationResult optimize(List<Item> itemList, List<Bin> binList, Duration budget) {
+        return optimize(ProblemInstance.of(itemList, binList), budget);
+    }
+
+    public OptimizationResult optimize(ProblemInstance problem, Duration budget) {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        long graceEnd = start + (long) (GRACE_FRACTION * budget.toNanos());
+
+        // Greedy baseline: the first incumbent and the seed of every strategy
+        PackingChromosome greedy = greedy(problem);
+        Progress baseline = new Progress("greedy");
+        baseline.best = score(problem, greedy);
+        AtomicReference<Incumbent> incumbent = new AtomicReference<>(new Incumbent(baseline.best, greedy));
+
+        List<Progress> progress = new ArrayList<>();
+        progress.add(baseline);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, strategies.size()), threadFactory);
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (Strategy strategy : strategies) {
+                Progress state = new Progress(strategy.name);
+                progress.add(state);
+                runs.add(executor.submit(() -> race(problem, strategy, greedy, incumbent, state, deadline, graceEnd)));
+            }
+
+            // Strategies stop within a generation of the deadline (or when cancelled)
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Portfolio run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Portfolio strategy failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            awaitTermination(executor);
+        }
+
+        List<Outcome> outcomes = new ArrayList<>();
+        long fullEvaluations = 0;
+        long savedEvaluations = 0;
+        for (Progress state : progress) {
+            outcomes.add(new Outcome(state.name, state.best, state.generations, state.injections, state.cancelled));
+            fullEvaluations += state.fullEvaluations;
+            savedEvaluations += state.savedEvaluations;
+        }
+        outcomes.sort(Comparator.comparingDouble(Outcome::fitness).reversed());
+        lastOutcomes = List.copyOf(outcomes);
+
+        Incumbent best = incumbent.get();
+        return InventoryOptimizationWithPositions.toResult(problem, best.chromosome, best.fitness,
+                                                           fullEvaluations, savedEvaluations);
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Outcomes of the strategies in the last run, best first. The greedy baseline is included. */
+    public List<Outcome> lastOutcomes() {
+        return lastOutcomes;
+    }
+
+    // ---------- Strategy Runs ----------
+    // Best legal layout found by any strategy, scored with the target weight
+    private record Incumbent(double fitness, PackingChromosome chromosome) {}
+
+    // Live state of one strategy, read when the deadline is reached
+    private static final class Progress {
+        final String name;
+        volatile double best = Double.NEGATIVE_INFINITY;
+        volatile long generations;
+        volatile long injections;
+        volatile boolean cancelled;
+        volatile long fullEvaluations;
+        volatile long savedEvaluations;
+
+        Progress(String name) {
+            this.name = name;
+        }
+    }
+
+    private void race(ProblemInstance problem, Strategy strategy, PackingChromosome seed,
+                      AtomicReference<Incumbent> incumbent, Progress state, long deadline, long graceEnd) {
+        InventoryOptimizationWithPositions optimizer = new InventoryOptimizationWithPositions();
+        optimizer.setWeightW(strategy.w);
+        optimizer.setPopulationSize(strategy.populationSize);
+        optimizer.setMaxGenerations(strategy.maxGenerations);
+        optimizer.setMutationRate(strategy.mutationRate);
+        optimizer.setCrossoverRate(strategy.crossoverRate);
+
+        // While the strategy trails, each new incumbent goes into its population once
+        Incumbent[] injected = new Incumbent[1];
+        EvolutionInterceptor<PackingGene, Double> share = EvolutionInterceptor.ofBefore(start -> {
+            Incumbent current = incumbent.get();
+            if (current == injected[0] || current.fitness <= state.best
+                    || !start.population().forAll(Phenotype::isEvaluated)) {
+                return start;
+            }
+            injected[0] = current;
+            state.injections++;
+            return inject(start, current.chromosome);
+        });
+
+        long[] lastImprovement = new long[1];
+        OptimizationResult result = optimizer.optimize(problem, seed, (EvolutionResult<PackingGene, Double> generation) -> {
+            state.generations = generation.generation();
+
+            // Surrogate score of this strategy's best with the target weight; only a candidate that could
+            // beat the incumbent is placed geometrically and shared
+            PackingChromosome best = (PackingChromosome) generation.bestPhenotype().genotype().chromosome();
+            double fitness = score(problem, best);
+            if (fitness > state.best) {
+                state.best = fitness;
+                lastImprovement[0] = generation.generation();
+            }
+            if (fitness > incumbent.get().fitness) {
+                offer(problem, incumbent, StagedConstraint.legalize(problem, best));
+            }
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+
+            boolean trailing = incumbent.get().fitness - state.best > CANCEL_MARGIN;
+            boolean stagnant = generation.generation() - lastImprovement[0] >= CANCEL_PATIENCE;
+            if (System.nanoTime() >= graceEnd && trailing && stagnant) {
+                state.cancelled = true;
+                return false;
+            }
+            return true;
+        }, share, deadline);
+
+        // Final layout of the strategy is legal; it may still improve on what was shared during the run
+        offer(problem, incumbent, toChromosome(problem, result));
+        state.fullEvaluations = result.fullEvaluations;
+        state.savedEvaluations = result.savedEvaluations;
+    }
+
+    // Replaces the worst individual of an evaluated population with the given layout, to be evaluated
+    static EvolutionStart<PackingGene, Double> inject(EvolutionStart<PackingGene, Double> start, PackingChromosome chromosome) {
+        ISeq<Phenotype<PackingGene, Double>> population = start.population();
+        int worst = 0;
+        for (int k = 1; k < population.size(); k++) {
+            if (population.get(k).fitness() < population.get(worst).fitness()) {
+                worst = k;
+            }
+        }
+        MSeq<Phenotype<PackingGene, Double>> injected = population.copy();
+        injected.set(worst, Phenotype.of(Genotype.of(chromosome), start.generation()));
+        return EvolutionStart.of(injected.toISeq(), start.generation());
+    }
+
+    private void offer(ProblemInstance problem, AtomicReference<Incumbent> incumbent, PackingChromosome chromosome) {
+        Incumbent candidate = new Incumbent(score(problem, chromosome), chromosome);
+        incumbent.accumulateAndGet(candidate, (current, offered) -> offered.fitness > current.fitness ? offered : current);
+    }
+
+    private double score(ProblemInstance problem, PackingChromosome chromosome) {
+        return InventoryOptimizationWithPositions.fitness(problem, targetW, Genotype.of(chromosome));
+    }
+
+    private static PackingChromosome toChromosome(ProblemInstance problem, OptimizationResult result) {
+        PackingChromosome.Builder builder = new PackingChromosome.Builder(problem);
+        for (InventoryOptimizationWithPositions.ItemPlacement placement : result.itemPlacements) {
+            builder.set(placement.itemIdx, placement.binIdx, placement.row, placement.col, placement.rotated);
+        }
+        return builder.build();
+    }
+
+    // ---------- Greedy Baseline ----------
+    /**
+     * Items by decreasing price (then area), each into the free rectangle of any bin that leaves the
+     * shortest leftover side, in either feasible orientation; items that fit nowhere stay in bin 0.
+     */
+    static PackingChromosome greedy(ProblemInstance problem) {
+        List<FreeRectangleIndex> freeSpace = new ArrayList<>();
+        for (int b = 0; b < problem.numBins(); b++) {
+            freeSpace.add(new FreeRectangleIndex(problem.binWidth(b), problem.binHeight(b)));
+        }
+
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < problem.numItems(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingDouble((Integer i) -> problem.itemPrice(i))
+                .thenComparingDouble(problem::itemArea)
+                .reversed());
+
+        PackingChromosome.Builder builder = new PackingChromosome.Builder(problem);
+        for (int item : order) {
+            double[] best = null;
+            int bestBin = 0;
+            boolean bestRotated = false;
+            for (int bin : problem.feasibleBins(item)) {
+                for (int orientation = 0; orientation < 2; orientation++) {
+                    boolean rotated = orientation == 1;
+                    if (!problem.fits(item, bin - 1, rotated)) {
+                        continue;
+                    }
+                    double[] spot = freeSpace.get(bin - 1).find(problem.effectiveHeight(item, rotated),
+                                                                problem.effectiveWidth(item, rotated));
+                    if (spot != null && (best == null || spot[2] < best[2] || (spot[2] == best[2] && spot[3] < best[3]))) {
+                        best = spot;
+                        bestBin = bin;
+                        bestRotated = rotated;
+                    }
+                }
+            }
+            if (best == null) {
+                continue; // Stays in bin 0
+            }
+            builder.set(item, bestBin, best[0], best[1], bestRotated);
+            freeSpace.get(bestBin - 1).occupy(best[0], best[1],
+                    problem.effectiveHeight(item, bestRotated), problem.effectiveWidth(item, bestRotated));
+        }
+        return builder.build();
+    }
+}
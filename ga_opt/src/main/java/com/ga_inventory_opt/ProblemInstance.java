@@ -0,0 +1,269 @@
+package com.ga_inventory_opt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
+
+/**
+ * Immutable, precompiled description of one packing problem.
+ *
+ * Item and bin dimensions are flattened into primitive arrays, and everything the optimizer derives
+ * from them (areas, totals, coordinate bounds and which orientations of each item fit in each bin) is
+ * computed once here. The fit table doubles as a feasibility index: initialization, mutation and repair
+ * only ever assign an item to one of its {@link #feasibleBins(int)}, and items that fit no bin stay in
+ * bin 0 and are left out of the search. An instance can be shared between threads and passed to
+ * {@link InventoryOptimizationWithPositions#optimize(ProblemInstance)} any number of times.
+ *
+ * Bin accessors take the 0-based bin index; bin genes use 1..numBins, with 0 meaning "not in storage".
+ */
+public final class ProblemInstance {
+    private static final byte FITS_UPRIGHT = 1;
+    private static final byte FITS_ROTATED = 2;
+
+    private final int numItems;
+    private final int numBins;
+    private final double[] itemWidths;
+    private final double[] itemHeights;
+    private final double[] itemPrices;
+    private final double[] itemAreas;
+    private final double[] binWidths;
+    private final double[] binHeights;
+    private final double[] binAreas;
+    private final double totalBinArea;
+    private final double totalInventoryPrice;
+    private final double maxBinWidth;
+    private final double maxBinHeight;
+
+    // fitTable[item * numBins + bin] = FITS_UPRIGHT | FITS_ROTATED
+    private final byte[] fitTable;
+
+    // Bin numbers (1..numBins) each item fits in; items with identical dimensions share one array
+    private final int[][] feasibleBins;
+    // Items with at least one feasible bin
+    private final int[] placeableItems;
+
+    private ProblemInstance(double[] itemWidths, double[] itemHeights, double[] itemPrices,
+                            double[] binWidths, double[] binHeights) {
+        this.numItems = itemWidths.length;
+        this.numBins = binWidths.length;
+        this.itemWidths = itemWidths;
+        this.itemHeights = itemHeights;
+        this.itemPrices = itemPrices;
+        this.binWidths = binWidths;
+        this.binHeights = binHeights;
+
+        // Calculate areas and totals
+        itemAreas = new double[numItems];
+        double priceSum = 0.0;
+        for (int i = 0; i < numItems; i++) {
+            itemAreas[i] = itemWidths[i] * itemHeights[i];
+            priceSum += itemPrices[i];
+        }
+        totalInventoryPrice = priceSum;
+
+        binAreas = new double[numBins];
+        double areaSum = 0.0;
+        double widthMax = 0.0;
+        double heightMax = 0.0;
+        for (int b = 0; b < numBins; b++) {
+            binAreas[b] = binWidths[b] * binHeights[b];
+            areaSum += binAreas[b];
+            if (binWidths[b] > widthMax) widthMax = binWidths[b];
+            if (binHeights[b] > heightMax) heightMax = binHeights[b];
+        }
+        totalBinArea = areaSum;
+        maxBinWidth = widthMax;
+        maxBinHeight = heightMax;
+
+        // Which orientations of each item fit inside each (empty) bin
+        fitTable = new byte[numItems * numBins];
+        for (int i = 0; i < numItems; i++) {
+            for (int b = 0; b < numBins; b++) {
+                byte mask = 0;
+                if (itemWidths[i] <= binWidths[b] && itemHeights[i] <= binHeights[b]) mask |= FITS_UPRIGHT;
+                if (itemHeights[i] <= binWidths[b] && itemWidths[i] <= binHeights[b]) mask |= FITS_ROTATED;
+                fitTable[i * numBins + b] = mask;
+            }
+        }
+
+        // Feasibility index, computed once per distinct item size
+        feasibleBins = new int[numItems][];
+        Map<List<Double>, int[]> bySize = new HashMap<>();
+        List<Integer> placeable = new ArrayList<>();
+        for (int i = 0; i < numItems; i++) {
+            final int item = i;
+            feasibleBins[i] = bySize.computeIfAbsent(List.of(itemWidths[i], itemHeights[i]), size -> {
+                List<Integer> allowed = new ArrayList<>();
+                for (int b = 0; b < numBins; b++) {
+                    if (fitTable[item * numBins + b] != 0) allowed.add(b + 1);
+                }
+                return allowed.stream().mapToInt(Integer::intValue).toArray();
+            });
+            if (feasibleBins[i].length > 0) placeable.add(i);
+        }
+        placeableItems = placeable.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static ProblemInstance of(List<Item> itemList, List<Bin> binList) {
+        int numItems = itemList.size();
+        int numBins = binList.size();
+
+        double[] itemWidths = new double[numItems];
+        double[] itemHeights = new double[numItems];
+        double[] itemPrices = new double[numItems];
+        for (int i = 0; i < numItems; i++) {
+            Item item = itemList.get(i);
+            itemWidths[i] = item.width;
+            itemHeights[i] = item.height;
+            itemPrices[i] = item.price;
+        }
+
+        double[] binWidths = new double[numBins];
+        double[] binHeights = new double[numBins];
+        for (int b = 0; b < numBins; b++) {
+            Bin bin = binList.get(b);
+            binWidths[b] = bin.width;
+            binHeights[b] = bin.height;
+        }
+
+        return new ProblemInstance(itemWidths, itemHeights, itemPrices, binWidths, binHeights);
+    }
+
+    // ---------- Items ----------
+    public int numItems() {
+        return numItems;
+    }
+
+    public double itemWidth(int item) {
+        return itemWidths[item];
+    }
+
+    public double itemHeight(int item) {
+        return itemHeights[item];
+    }
+
+    public double itemPrice(int item) {
+        return itemPrices[item];
+    }
+
+    public double itemArea(int item) {
+        return itemAreas[item];
+    }
+
+    /** Width of the item as placed: height when rotated 90 degrees. */
+    public double effectiveWidth(int item, boolean rotated) {
+        return rotated ? itemHeights[item] : itemWidths[item];
+    }
+
+    /** Height of the item as placed: width when rotated 90 degrees. */
+    public double effectiveHeight(int item, boolean rotated) {
+        return rotated ? itemWidths[item] : itemHeights[item];
+    }
+
+    // ---------- Bins ----------
+    public int numBins() {
+        return numBins;
+    }
+
+    public double binWidth(int bin) {
+        return binWidths[bin];
+    }
+
+    public double binHeight(int bin) {
+        return binHeights[bin];
+    }
+
+    public double binArea(int bin) {
+        return binAreas[bin];
+    }
+
+    public double maxBinWidth() {
+        return maxBinWidth;
+    }
+
+    public double maxBinHeight() {
+        return maxBinHeight;
+    }
+
+    // ---------- Totals ----------
+    public double totalBinArea() {
+        return totalBinArea;
+    }
+
+    public double totalInventoryPrice() {
+        return totalInventoryPrice;
+    }
+
+    // ---------- Fit Table ----------
+    /** True if the item fits inside the empty bin in the given orientation. */
+    public boolean fits(int item, int bin, boolean rotated) {
+        return (fitTable[item * numBins + bin] & (rotated ? FITS_ROTATED : FITS_UPRIGHT)) != 0;
+    }
+
+    /** True if the item fits inside the empty bin in at least one orientation. */
+    public boolean fitsAnyOrientation(int item, int bin) {
+        return fitTable[item * numBins + bin] != 0;
+    }
+
+    // ---------- Feasibility Index ----------
+    /** Bin numbers (1..numBins, as used in bin genes) the item fits in. Empty if it fits nowhere. */
+    public int[] feasibleBins(int item) {
+        return feasibleBins[item].clone();
+    }
+
+    public int numFeasibleBins(int item) {
+        return feasibleBins[item].length;
+    }
+
+    public boolean isPlaceable(int item) {
+        return feasibleBins[item].length > 0;
+    }
+
+    public int numPlaceableItems() {
+        return placeableItems.length;
+    }
+
+    /** Random item that fits at least one bin, or -1 if there is none. */
+    public int randomPlaceableItem(RandomGenerator random) {
+        return placeableItems.length == 0 ? -1 : placeableItems[random.nextInt(placeableItems.length)];
+    }
+
+    /** Random bin number the item fits in, other than {@code excluded}; 0 if there is none. */
+    public int randomFeasibleBin(int item, int excluded, RandomGenerator random) {
+        int[] allowed = feasibleBins[item];
+        int candidates = allowed.length;
+        for (int bin : allowed) {
+            if (bin == excluded) {
+                candidates--;
+                break;
+            }
+        }
+        if (candidates == 0) {
+            return 0;
+        }
+        int pick = random.nextInt(candidates);
+        for (int bin : allowed) {
+            if (bin == excluded) continue;
+            if (pick-- == 0) return bin;
+        }
+        return 0;
+    }
+
+    /**
+     * Random orientation in which the item fits the given bin number (1..numBins). The item must fit
+     * the bin in at least one orientation.
+     */
+    public boolean randomFeasibleRotation(int item, int bin, RandomGenerator random) {
+        boolean upright = fits(item, bin - 1, false);
+        boolean rotated = fits(item, bin - 1, true);
+        if (upright && rotated) {
+            return random.nextBoolean();
+        }
+        return rotated;
+    }
+}
@@ -0,0 +1,254 @@
+package com.ga_inventory_opt;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Persistent on-disk cache of optimizer results, keyed by a content hash of the request.
+ *
+ * Records are appended to a single log file, one per line: {@code key \t createdAtMillis \t value}.
+ * An in-memory index (key -> offset of the newest record) is rebuilt by scanning the log when the
+ * cache is opened, so lookups are a single seek + read. Expired records are ignored on read, and when
+ * the log grows beyond {@code maxBytes} it is compacted: live records are rewritten newest first until
+ * the log is back under 3/4 of the limit, and everything else is dropped.
+ *
+ * Several processes may share a cache directory. Appends and compaction hold an exclusive lock on a
+ * separate lock file that is never replaced, and a writer opens the log only once it holds that lock,
+ * so an append can never land in a log that compaction has just replaced. Readers take no lock; a
+ * reader that finds a stale offset reloads the index.
+ */
+public class ResultCache {
+    private static final String LOG_FILE = "results.log";
+    private static final String LOCK_FILE = "results.lock";
+    private static final double COMPACT_TARGET = 0.75;
+
+    private final Path logFile;
+    private final Path lockFile;
+    private final long maxBytes;
+    private final long ttlMillis;
+    private final Map<String, Entry> index = new HashMap<>();
+
+    private record Entry(long offset, int length, long createdAt) {}
+
+    private ResultCache(Path logFile, long maxBytes, Duration ttl) {
+        this.logFile = logFile;
+        this.lockFile = logFile.resolveSibling(LOCK_FILE);
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    // ---------- Opening ----------
+    public static ResultCache open(Path directory, long maxBytes, Duration ttl) throws IOException {
+        Files.createDirectories(directory);
+        ResultCache cache = new ResultCache(directory.resolve(LOG_FILE), maxBytes, ttl);
+        cache.reloadIndex();
+        return cache;
+    }
+
+    /**
+     * Opens the cache configured through system properties, or returns null when disabled:
+     * ga_opt.cache.enabled (default true), ga_opt.cache.dir (default ~/.ga_opt/cache),
+     * ga_opt.cache.maxBytes (default 64 MiB), ga_opt.cache.ttlHours (default 24).
+     */
+    public static ResultCache fromSystemProperties() throws IOException {
+        if (!Boolean.parseBoolean(System.getProperty("ga_opt.cache.enabled", "true"))) {
+            return null;
+        }
+        Path directory = Paths.get(System.getProperty("ga_opt.cache.dir",
+                Paths.get(System.getProperty("user.home"), ".ga_opt", "cache").toString()));
+        long maxBytes = Long.parseLong(System.getProperty("ga_opt.cache.maxBytes", String.valueOf(64L << 20)));
+        long ttlHours = Long.parseLong(System.getProperty("ga_opt.cache.ttlHours", "24"));
+        return open(directory, maxBytes, Duration.ofHours(ttlHours));
+    }
+
+    // ---------- Lookup / Store ----------
+    public synchronized Optional<String> get(String key) throws IOException {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        Record record = read(entry);
+        if (record == null || !record.key.equals(key)) {
+            // Log was compacted by another process; pick up its new layout and retry once
+            reloadIndex();
+            entry = index.get(key);
+            record = (entry == null) ? null : read(entry);
+            if (record == null || !record.key.equals(key)) {
+                return Optional.empty();
+            }
+        }
+        if (isExpired(record.createdAt)) {
+            index.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(record.value);
+    }
+
+    public synchronized void put(String key, String value) throws IOException {
+        if (key.indexOf('\t') >= 0 || key.indexOf('\n') >= 0 || value.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Cache keys and values must be single-line");
+        }
+        long now = System.currentTimeMillis();
+        byte[] line = (key + '\t' + now + '\t' + value + '\n').getBytes(StandardCharsets.UTF_8);
+
+        long size;
+        try (FileChannel lockChannel = openLockFile()) {
+            FileLock lock = lockChannel.lock();
+            try (FileChannel channel = FileChannel.open(logFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long offset = channel.size();
+                ByteBuffer buffer = ByteBuffer.wrap(line);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                index.put(key, new Entry(offset, line.length - 1, now));
+                size = channel.size();
+            } finally {
+                lock.release();
+            }
+        }
+
+        if (size > maxBytes) {
+            compact();
+        }
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    // ---------- Content Hashing ----------
+    /** SHA-256 of the canonical request text, as lowercase hex. */
+    public static String hash(String canonical) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // ---------- Index Maintenance ----------
+    private void reloadIndex() throws IOException {
+        index.clear();
+        if (!Files.exists(logFile)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            long offset = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int length = line.getBytes(StandardCharsets.UTF_8).length;
+                Record record = Record.parse(line);
+                // Later records for the same key supersede earlier ones; torn lines are skipped
+                if (record != null && !isExpired(record.createdAt)) {
+                    index.put(record.key, new Entry(offset, length, record.createdAt));
+                }
+                offset += length + 1;
+            }
+        }
+    }
+
+    private void compact() throws IOException {
+        Path tmp = logFile.resolveSibling(LOG_FILE + ".tmp");
+        try (FileChannel lockChannel = openLockFile()) {
+            FileLock lock = lockChannel.lock();
+            try {
+                reloadIndex();
+
+                List<Map.Entry<String, Entry>> live = new ArrayList<>(index.entrySet());
+                live.sort(Comparator.comparingLong((Map.Entry<String, Entry> e) -> e.getValue().createdAt).reversed());
+
+                long budget = (long) (maxBytes * COMPACT_TARGET);
+                long written = 0;
+                Map<String, Entry> kept = new HashMap<>();
+                try (RandomAccessFile in = new RandomAccessFile(logFile.toFile(), "r");
+                     FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                             StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    for (Map.Entry<String, Entry> e : live) {
+                        Entry entry = e.getValue();
+                        if (written + entry.length + 1 > budget) {
+                            break;
+                        }
+                        byte[] bytes = new byte[entry.length + 1];
+                        in.seek(entry.offset);
+                        in.readFully(bytes, 0, entry.length);
+                        bytes[entry.length] = '\n';
+                        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                        while (buffer.hasRemaining()) {
+                            out.write(buffer);
+                        }
+                        kept.put(e.getKey(), new Entry(written, entry.length, entry.createdAt));
+                        written += bytes.length;
+                    }
+                }
+                Files.move(tmp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                index.clear();
+                index.putAll(kept);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    private FileChannel openLockFile() throws IOException {
+        return FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private Record read(Entry entry) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(logFile.toFile(), "r")) {
+            if (entry.offset + entry.length > file.length()) {
+                return null;
+            }
+            byte[] bytes = new byte[entry.length];
+            file.seek(entry.offset);
+            file.readFully(bytes);
+            return Record.parse(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private boolean isExpired(long createdAt) {
+        return System.currentTimeMillis() - createdAt > ttlMillis;
+    }
+
+    // ---------- Log Record ----------
+    private record Record(String key, long createdAt, String value) {
+        static Record parse(String line) {
+            int first = line.indexOf('\t');
+            int second = (first < 0) ? -1 : line.indexOf('\t', first + 1);
+            if (second < 0) {
+                return null;
+            }
+            try {
+                long createdAt = Long.parseLong(line.substring(first + 1, second));
+                return new Record(line.substring(0, first), createdAt, line.substring(second + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
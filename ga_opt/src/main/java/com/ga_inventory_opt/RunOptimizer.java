@@ -1,18 +1,41 @@
 package com.ga_inventory_opt;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
 
 import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
 import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
 import com.ga_inventory_opt.InventoryOptimizationWithPositions.OptimizationResult;
+import com.ga_inventory_opt.TuningProfile.Features;
+import com.ga_inventory_opt.TuningProfile.Parameters;
 
 public class RunOptimizer {
+    // Used when no tuning profile is installed or none of its classes matches the request
+    static final Parameters DEFAULT_PARAMETERS = new Parameters(1200, 150, 0.2, 0.3);
+
+    // Seed passed to the optimizer; null runs unseeded
+    private Long seed = null;
+
+    void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
     Map<Integer, Map<Integer, Integer>> run(List<ItemType> itemTypes, List<BinType> binTypes, double fitnessWeight, int populationSize, int maxGenerations) {
+        return run(itemTypes, binTypes, fitnessWeight, new Parameters(populationSize, maxGenerations,
+                DEFAULT_PARAMETERS.mutationRate(), DEFAULT_PARAMETERS.crossoverRate()));
+    }
+
+    Map<Integer, Map<Integer, Integer>> run(List<ItemType> itemTypes, List<BinType> binTypes, double fitnessWeight, Parameters parameters) {
         List<Item> items = new ArrayList<>();
         Map<Integer, Integer> itemToType = new HashMap<>();  // itemId to itemTypeNumber
         int itemIndex = 0;
@@ -34,8 +57,8 @@ public class RunOptimizer {
         // Create optimizer and configure
         InventoryOptimizationWithPositions internalOptimizer = new InventoryOptimizationWithPositions();
         internalOptimizer.setWeightW(fitnessWeight);
-        internalOptimizer.setPopulationSize(populationSize);
-        internalOptimizer.setMaxGenerations(maxGenerations);
+        parameters.applyTo(internalOptimizer);
+        internalOptimizer.setSeed(seed);
 
         // Run optimization
         OptimizationResult result = internalOptimizer.optimize(items, bins);
@@ -85,6 +108,137 @@ public class RunOptimizer {
 
         return binToTypeCounts;
     }
+    // ---------- Result Caching ----------
+    // Identical requests (same item/bin types and parameters, in any order) are answered from the cache.
+    // Bin keys in the output are positional, so cached results are stored against the canonical bin
+    // order and mapped back onto the order of the incoming request.
+    Map<Integer, Map<Integer, Integer>> runCached(ResultCache cache, OptimizationInput input, double fitnessWeight, int populationSize, int maxGenerations) {
+        return runCached(cache, input, fitnessWeight, new Parameters(populationSize, maxGenerations,
+                DEFAULT_PARAMETERS.mutationRate(), DEFAULT_PARAMETERS.crossoverRate()));
+    }
+
+    Map<Integer, Map<Integer, Integer>> runCached(ResultCache cache, OptimizationInput input, double fitnessWeight, Parameters parameters) {
+        if (cache == null) {
+            return run(input.itemTypes, input.binTypes, fitnessWeight, parameters);
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        int[] binOrder = canonicalBinOrder(input.binTypes);
+        String key = ResultCache.hash(canonicalize(input, binOrder, fitnessWeight, parameters, seed));
+
+        try {
+            Optional<String> cached = cache.get(key);
+            if (cached.isPresent()) {
+                Map<Integer, Map<Integer, Integer>> canonical = mapper.readValue(cached.get(),
+                        new TypeReference<Map<Integer, Map<Integer, Integer>>>() {});
+                Map<Integer, Map<Integer, Integer>> result = new HashMap<>();
+                for (int c = 0; c < binOrder.length; c++) {
+                    result.put(binOrder[c] + 1, canonical.getOrDefault(c + 1, new HashMap<>()));
+                }
+                return result;
+            }
+        } catch (IOException e) {
+            System.err.println("Result cache unavailable, running optimizer: " + e.getMessage());
+        }
+
+        Map<Integer, Map<Integer, Integer>> result = run(input.itemTypes, input.binTypes, fitnessWeight, parameters);
+
+        try {
+            Map<Integer, Map<Integer, Integer>> canonical = new HashMap<>();
+            for (int c = 0; c < binOrder.length; c++) {
+                canonical.put(c + 1, result.getOrDefault(binOrder[c] + 1, new HashMap<>()));
+            }
+            cache.put(key, mapper.writeValueAsString(canonical));
+        } catch (IOException e) {
+            System.err.println("Could not store result in cache: " + e.getMessage());
+        }
+        return result;
+    }
+
+    // binOrder[c] = index in the request of the bin at canonical position c
+    static int[] canonicalBinOrder(List<BinType> binTypes) {
+        return IntStream.range(0, binTypes.size()).boxed()
+                .sorted(Comparator.<Integer>comparingInt(i -> binTypes.get(i).number)
+                        .thenComparingDouble(i -> normalize(binTypes.get(i).width))
+                        .thenComparingDouble(i -> normalize(binTypes.get(i).height)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    static String canonicalize(OptimizationInput input, int[] binOrder, double fitnessWeight, int populationSize, int maxGenerations) {
+        return canonicalize(input, binOrder, fitnessWeight, new Parameters(populationSize, maxGenerations,
+                DEFAULT_PARAMETERS.mutationRate(), DEFAULT_PARAMETERS.crossoverRate()));
+    }
+
+    static String canonicalize(OptimizationInput input, int[] binOrder, double fitnessWeight, Parameters parameters) {
+        return canonicalize(input, binOrder, fitnessWeight, parameters, null);
+    }
+
+    // Includes every resolved GA parameter, so a changed tuning profile never serves stale results.
+    // Seeded runs get their own entries; unseeded keys are unchanged.
+    static String canonicalize(OptimizationInput input, int[] binOrder, double fitnessWeight, Parameters parameters, Long seed) {
+        StringBuilder sb = new StringBuilder("v2");
+        sb.append("|w=").append(format(fitnessWeight));
+        sb.append("|pop=").append(parameters.populationSize());
+        sb.append("|gen=").append(parameters.maxGenerations());
+        sb.append("|mut=").append(format(parameters.mutationRate()));
+        sb.append("|cx=").append(format(parameters.crossoverRate()));
+        if (seed != null) {
+            sb.append("|seed=").append(seed);
+        }
+
+        // Item type order does not matter (output is keyed by type number); empty types contribute no items
+        List<String> itemKeys = new ArrayList<>();
+        for (ItemType itemType : input.itemTypes) {
+            if (itemType.quantity > 0) {
+                itemKeys.add(itemType.number + ":" + format(itemType.width) + ":" + format(itemType.height)
+                        + ":" + format(itemType.price) + ":" + itemType.quantity);
+            }
+        }
+        itemKeys.sort(Comparator.naturalOrder());
+        sb.append("|items=").append(String.join(",", itemKeys));
+
+        sb.append("|bins=");
+        for (int c = 0; c < binOrder.length; c++) {
+            BinType binType = input.binTypes.get(binOrder[c]);
+            if (c > 0) sb.append(',');
+            sb.append(binType.number).append(':').append(format(binType.width)).append(':').append(format(binType.height));
+        }
+        return sb.toString();
+    }
+
+    private static double normalize(double value) {
+        return value == 0.0 ? 0.0 : value;  // fold -0.0 into 0.0
+    }
+
+    private static String format(double value) {
+        return BigDecimal.valueOf(normalize(value)).stripTrailingZeros().toPlainString();
+    }
+
+    // ---------- Parameter Resolution ----------
+    /** GA parameters for the request: from the tuning profile if one is installed and matches, else the defaults. */
+    static Parameters resolveParameters(TuningProfile profile, OptimizationInput input) {
+        if (profile == null) {
+            return DEFAULT_PARAMETERS;
+        }
+        Parameters recommended = profile.recommend(features(input));
+        return recommended != null ? recommended : DEFAULT_PARAMETERS;
+    }
+
+    static Features features(OptimizationInput input) {
+        int units = 0;
+        double itemArea = 0.0;
+        for (ItemType itemType : input.itemTypes) {
+            units += itemType.quantity;
+            itemArea += itemType.quantity * itemType.width * itemType.height;
+        }
+        double binArea = 0.0;
+        for (BinType binType : input.binTypes) {
+            binArea += binType.width * binType.height;
+        }
+        return new Features(units, input.binTypes.size(), binArea == 0 ? Double.MAX_VALUE : itemArea / binArea);
+    }
+
     static class ItemType {
         public int number;
         public double width;
@@ -112,7 +266,24 @@ public class RunOptimizer {
 
         // Run Jenetics algorithm
         RunOptimizer optimizer = new RunOptimizer();
-        Map<Integer, Map<Integer, Integer>> itemToBinAssignment = optimizer.run(input.itemTypes, input.binTypes, 0.75, 1200, 150);
+        ResultCache cache = null;
+        try {
+            cache = ResultCache.fromSystemProperties();
+        } catch (IOException e) {
+            System.err.println("Result cache unavailable, running optimizer: " + e.getMessage());
+        }
+        TuningProfile profile = null;
+        try {
+            profile = TuningProfile.fromSystemProperties();
+        } catch (IOException e) {
+            System.err.println("Tuning profile unavailable, using default parameters: " + e.getMessage());
+        }
+        Parameters parameters = resolveParameters(profile, input);
+        String seed = System.getProperty("ga_opt.seed");
+        if (seed != null) {
+            optimizer.setSeed(Long.parseLong(seed));
+        }
+        Map<Integer, Map<Integer, Integer>> itemToBinAssignment = optimizer.runCached(cache, input, 0.75, parameters);
 
         // Output JSON result
         mapper.writeValue(System.out, itemToBinAssignment);
@@ -0,0 +1,126 @@
+package com.ga_inventory_opt;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+import io.jenetics.Alterer;
+import io.jenetics.Gene;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.Selector;
+import io.jenetics.engine.Constraint;
+import io.jenetics.engine.Engine;
+import io.jenetics.engine.EvolutionResult;
+import io.jenetics.util.Factory;
+import io.jenetics.util.RandomRegistry;
+
+/**
+ * Reproducible randomness for a seeded run on the parallel engine.
+ *
+ * The engine selects survivors and offspring, alters and repairs on several threads, so one shared
+ * seeded generator would hand out its numbers in whatever order the threads reach it. Instead every
+ * random consumer draws from its own stream, created from the run seed and a key that does not
+ * depend on the thread schedule:
+ *
+ * <ul>
+ *   <li>initial population: the position of the genotype in the population</li>
+ *   <li>survivors / offspring selection, alteration: the stage and the generation</li>
+ *   <li>repair: the generation and the content of the individual being repaired</li>
+ * </ul>
+ *
+ * The engine replaces individuals older than the maximal phenotype age from inside its concurrent
+ * filters, where the order of the replacements is not fixed. {@link #configure} therefore disables
+ * that and the wrapped constraint retires over-age individuals itself, as a repair keyed like any
+ * other. {@link #update(EvolutionResult)} must see every generation so it knows their age.
+ */
+final class SeededStreams<G extends Gene<?, G>, C extends Comparable<? super C>> {
+    private static final long FACTORY = 1;
+    private static final long SURVIVORS = 2;
+    private static final long OFFSPRING = 3;
+    private static final long ALTER = 4;
+    private static final long REPAIR = 5;
+    private static final long RETIRE = 6;
+
+    private final long seed;
+    private volatile long generation = 1;
+
+    SeededStreams(long seed) {
+        this.seed = seed;
+    }
+
+    // ---------- Engine ----------
+    /**
+     * Wraps the random population source; pass the result to the {@link Engine.Builder} constructor.
+     */
+    Factory<Genotype<G>> factory(Factory<Genotype<G>> factory) {
+        // The initial population is created on the calling thread, one genotype after the other
+        AtomicLong index = new AtomicLong();
+        return () -> RandomRegistry.with(stream(FACTORY, 0, index.getAndIncrement()),
+                random -> factory.newInstance());
+    }
+
+    /**
+     * Wraps the selectors, alterer and constraint of {@code builder}; {@code factory} is the unwrapped
+     * population source used to replace over-age individuals.
+     */
+    void configure(Engine.Builder<G, C> builder, Factory<Genotype<G>> factory) {
+        long maximalAge = builder.maximalPhenotypeAge();
+        builder.survivorsSelector(selector(builder.survivorsSelector(), SURVIVORS))
+                .offspringSelector(selector(builder.offspringSelector(), OFFSPRING))
+                .alterers(alterer(builder.alterer()))
+                .constraint(constraint(builder.constraint(), factory, maximalAge))
+                .maximalPhenotypeAge(Long.MAX_VALUE);
+    }
+
+    /** Records the generation just finished; over-age checks apply to the next one. */
+    void update(EvolutionResult<G, C> result) {
+        generation = result.generation() + 1;
+    }
+
+    // ---------- Wrappers ----------
+    private Selector<G, C> selector(Selector<G, C> selector, long stage) {
+        return (population, count, opt) -> RandomRegistry.with(stream(stage, generation, 0),
+                random -> selector.select(population, count, opt));
+    }
+
+    private Alterer<G, C> alterer(Alterer<G, C> alterer) {
+        return (population, generation) -> RandomRegistry.with(stream(ALTER, generation, 0),
+                random -> alterer.alter(population, generation));
+    }
+
+    private Constraint<G, C> constraint(Constraint<G, C> constraint, Factory<Genotype<G>> factory, long maximalAge) {
+        return new Constraint<>() {
+            @Override
+            public boolean test(Phenotype<G, C> individual) {
+                return individual.age(generation) <= maximalAge && constraint.test(individual);
+            }
+
+            @Override
+            public Phenotype<G, C> repair(Phenotype<G, C> individual, long generation) {
+                // The chromosome hash is content based, so the key is the same in every run
+                long key = individual.genotype().chromosome().hashCode();
+                if (individual.age(generation) > maximalAge) {
+                    return RandomRegistry.with(stream(RETIRE, generation, key),
+                            random -> Phenotype.of(factory.newInstance(), generation));
+                }
+                return RandomRegistry.with(stream(REPAIR, generation, key),
+                        random -> constraint.repair(individual, generation));
+            }
+        };
+    }
+
+    // ---------- Streams ----------
+    RandomGenerator stream(long stage, long generation, long index) {
+        long key = mix(mix(mix(seed ^ stage) ^ generation) ^ index);
+        return RandomGeneratorFactory.of("L64X128MixRandom").create(key);
+    }
+
+    // SplitMix64 finalizer: nearby keys give unrelated stream seeds
+    private static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,354 @@
+package com.ga_inventory_opt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.engine.Constraint;
+import io.jenetics.engine.EvolutionResult;
+
+/**
+ * Multi-fidelity constraint: candidates are screened cheaply before paying for geometry.
+ *
+ * <ol>
+ *   <li>Area screen (always): per-bin stored area sums. A bin holding more item area than it has is
+ *       certainly infeasible, so the candidate goes straight to repair without any overlap check.</li>
+ *   <li>Surrogate score: the area-based fitness of the assignment. Candidates that score below the
+ *       current elite threshold (the fitness of the top {@code ELITE_FRACTION} of the last generation)
+ *       are accepted at low fidelity, without overlap validation. So are ties with the threshold,
+ *       which cannot improve the elite set either.</li>
+ *   <li>Full fidelity: candidates above the threshold get the strict O(k^2) overlap check of
+ *       {@link #isLegal}; if that fails, repair places their items geometrically so the elite set is
+ *       always legal.</li>
+ * </ol>
+ *
+ * The threshold starts at -infinity, so the initial population is validated in full; after each
+ * generation {@link #update(EvolutionResult)} raises it to the current elite boundary. Low-fidelity
+ * individuals may overlap and keep breeding, so they are never reported as they are: the optimizer
+ * reports the best individual only after legalizing it, or a fitter one that passes {@link #isLegal}.
+ *
+ * {@link #fullEvaluations()} counts the overlap checks and geometric placements performed, including
+ * re-checks of survivors. {@link #savedEvaluations()} counts candidates that got neither, each once in
+ * the generation it was created: survivors that pass the low-fidelity check again later are not
+ * counted again.
+ */
+public class StagedConstraint implements Constraint<PackingGene, Double> {
+    static final double ELITE_FRACTION = 0.1;
+
+    private final ProblemInstance problem;
+    private final double w;
+
+    private volatile double eliteThreshold = Double.NEGATIVE_INFINITY;
+    private volatile long generation = 1;
+
+    private final AtomicLong fullEvaluations = new AtomicLong();
+    private final AtomicLong screenedOut = new AtomicLong();
+    private final AtomicLong lowFidelity = new AtomicLong();
+
+    public StagedConstraint(ProblemInstance problem, double w) {
+        this.problem = problem;
+        this.w = w;
+    }
+
+    // ---------- Constraint ----------
+    @Override
+    public boolean test(Phenotype<PackingGene, Double> phenotype) {
+        PackingChromosome chromosome = (PackingChromosome) phenotype.genotype().chromosome();
+
+        // Stage 1: area screen
+        if (!passesAreaScreen(chromosome)) {
+            screenedOut.incrementAndGet();
+            return false;
+        }
+
+        // Stage 2: surrogate score against the elite threshold; a candidate that only ties the
+        // elite boundary cannot improve the elite set
+        if (InventoryOptimizationWithPositions.fitness(problem, w, phenotype.genotype()) <= eliteThreshold) {
+            if (phenotype.generation() >= generation) {
+                lowFidelity.incrementAndGet();
+            }
+            return true;
+        }
+
+        // Stage 3: full geometric validation
+        fullEvaluations.incrementAndGet();
+        return isLegal(problem, (PackingChromosome) phenotype.genotype().chromosome());
+    }
+
+    @Override
+    public Phenotype<PackingGene, Double> repair(Phenotype<PackingGene, Double> phenotype, long generation) {
+        // Feasible bins, rotations and clamped coordinates
+        Phenotype<PackingGene, Double> repaired = InventoryOptimizationWithPositions.repair(problem, phenotype, generation);
+        PackingChromosome chromosome = (PackingChromosome) repaired.genotype().chromosome();
+
+        // Overfull bins: take out the items with the lowest price per area until the area fits
+        PackingChromosome.Builder builder = chromosome.toBuilder();
+        boolean evicted = evictOverflow(builder);
+        Genotype<PackingGene> genotype = evicted ? Genotype.of(builder.build()) : repaired.genotype();
+
+        // Elite candidates get real placement so they can be trusted as the incumbent. Candidates that
+        // failed stage 3 were already counted as full evaluations; screened-out ones move from saved
+        // to full now that they get a geometric pass.
+        if (InventoryOptimizationWithPositions.fitness(problem, w, genotype) > eliteThreshold) {
+            if (!passesAreaScreen((PackingChromosome) phenotype.genotype().chromosome())) {
+                screenedOut.decrementAndGet();
+                fullEvaluations.incrementAndGet();
+            }
+            genotype = Genotype.of(legalize(problem, (PackingChromosome) genotype.chromosome()));
+        }
+        return Phenotype.of(genotype, generation);
+    }
+
+    /**
+     * Raises the elite threshold to the fitness of the top ELITE_FRACTION of the evaluated population,
+     * and moves on to the next generation.
+     */
+    public void update(EvolutionResult<PackingGene, Double> result) {
+        generation = result.generation() + 1;
+        double[] fitness = result.population().stream()
+                .filter(Phenotype::isEvaluated)
+                .mapToDouble(Phenotype::fitness)
+                .toArray();
+        if (fitness.length == 0) {
+            return;
+        }
+        Arrays.sort(fitness);
+        int eliteCount = Math.max(1, (int) Math.ceil(ELITE_FRACTION * fitness.length));
+        eliteThreshold = fitness[fitness.length - eliteCount];
+    }
+
+    double eliteThreshold() {
+        return eliteThreshold;
+    }
+
+    // ---------- Statistics ----------
+    /** Overlap validations and geometric placements performed. */
+    public long fullEvaluations() {
+        return fullEvaluations.get();
+    }
+
+    /** Candidates that never got an overlap validation or geometric placement, counted once each. */
+    public long savedEvaluations() {
+        return screenedOut.get() + lowFidelity.get();
+    }
+
+    // ---------- Stage Helpers ----------
+    private boolean passesAreaScreen(PackingChromosome chromosome) {
+        double[] usedArea = new double[problem.numBins()];
+        for (int i = 0; i < problem.numItems(); i++) {
+            int bin = chromosome.bin(i);
+            if (bin != 0) {
+                if (!problem.fitsAnyOrientation(i, bin - 1)) {
+                    return false;
+                }
+                usedArea[bin - 1] += problem.itemArea(i);
+            }
+        }
+        for (int b = 0; b < usedArea.length; b++) {
+            if (usedArea[b] > problem.binArea(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean evictOverflow(PackingChromosome.Builder builder) {
+        int numBins = problem.numBins();
+        List<List<Integer>> itemsInBins = new ArrayList<>();
+        double[] usedArea = new double[numBins];
+        for (int b = 0; b < numBins; b++) {
+            itemsInBins.add(new ArrayList<>());
+        }
+        for (int i = 0; i < problem.numItems(); i++) {
+            int bin = builder.bin(i);
+            if (bin != 0) {
+                itemsInBins.get(bin - 1).add(i);
+                usedArea[bin - 1] += problem.itemArea(i);
+            }
+        }
+
+        boolean evicted = false;
+        for (int b = 0; b < numBins; b++) {
+            if (usedArea[b] <= problem.binArea(b)) {
+                continue;
+            }
+            List<Integer> items = itemsInBins.get(b);
+            items.sort(Comparator.comparingDouble(i -> problem.itemPrice(i) / problem.itemArea(i)));
+            for (int k = 0; k < items.size() && usedArea[b] > problem.binArea(b); k++) {
+                int item = items.get(k);
+                builder.bin(item, 0);
+                usedArea[b] -= problem.itemArea(item);
+                evicted = true;
+            }
+        }
+        return evicted;
+    }
+
+    // ---------- Geometric Placement ----------
+    /**
+     * Strict legality: every stored item fits its bin in its orientation, lies inside the bin and
+     * overlaps no other item. Unlike {@link InventoryOptimizationWithPositions#isValid} there is no
+     * tolerance, so a legal chromosome can be reported as it is.
+     */
+    static boolean isLegal(ProblemInstance problem, PackingChromosome chromosome) {
+        List<List<double[]>> placed = new ArrayList<>();
+        for (int b = 0; b < problem.numBins(); b++) {
+            placed.add(new ArrayList<>());
+        }
+        for (int i = 0; i < problem.numItems(); i++) {
+            int bin = chromosome.bin(i);
+            if (bin == 0) {
+                continue;
+            }
+            boolean rotated = chromosome.rotated(i);
+            if (!problem.fits(i, bin - 1, rotated)) {
+                return false;
+            }
+            double height = problem.effectiveHeight(i, rotated);
+            double width = problem.effectiveWidth(i, rotated);
+            List<double[]> inBin = placed.get(bin - 1);
+            if (!isFree(inBin, chromosome.row(i), chromosome.col(i), height, width,
+                        problem.binHeight(bin - 1), problem.binWidth(bin - 1))) {
+                return false;
+            }
+            inBin.add(new double[]{chromosome.row(i), chromosome.col(i), height, width});
+        }
+        return true;
+    }
+
+    /**
+     * Returns a copy of the chromosome in which no two items in a bin overlap and every item lies inside
+     * its bin. Items are processed per bin in order of price; an item keeps its position if it is free,
+     * otherwise it is moved to the lowest (then left-most) free corner position in either feasible
+     * orientation, and if there is none it is taken out of storage. When keeping positions costs items,
+     * the bin is also re-packed from scratch and the arrangement storing more value wins.
+     */
+    static PackingChromosome legalize(ProblemInstance problem, PackingChromosome chromosome) {
+        int numBins = problem.numBins();
+        PackingChromosome.Builder builder = chromosome.toBuilder();
+
+        List<List<Integer>> itemsInBins = new ArrayList<>();
+        for (int b = 0; b < numBins; b++) {
+            itemsInBins.add(new ArrayList<>());
+        }
+        for (int i = 0; i < problem.numItems(); i++) {
+            if (chromosome.bin(i) != 0) {
+                itemsInBins.get(chromosome.bin(i) - 1).add(i);
+            }
+        }
+
+        for (int b = 0; b < numBins; b++) {
+            List<Integer> items = itemsInBins.get(b);
+            items.sort(Comparator.comparingDouble((Integer i) -> problem.itemPrice(i)).reversed());
+
+            double[][] spots = placeBin(problem, chromosome, b, items, true);
+            double lostPrice = lostPrice(problem, items, spots);
+            if (lostPrice > 0) {
+                double[][] repacked = placeBin(problem, chromosome, b, items, false);
+                if (lostPrice(problem, items, repacked) < lostPrice) {
+                    spots = repacked;
+                }
+            }
+
+            for (int k = 0; k < items.size(); k++) {
+                int item = items.get(k);
+                if (spots[k] == null) {
+                    builder.bin(item, 0);
+                } else {
+                    builder.rotated(item, spots[k][2] != 0).position(item, spots[k][0], spots[k][1]);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    // Places the items of one bin in order; spots[k] = [row, col, rotated ? 1 : 0], or null if evicted
+    private static double[][] placeBin(ProblemInstance problem, PackingChromosome chromosome, int bin,
+                                       List<Integer> items, boolean keepPositions) {
+        double binWidth = problem.binWidth(bin);
+        double binHeight = problem.binHeight(bin);
+        // Placed rectangles: [row, col, height, width]
+        List<double[]> placed = new ArrayList<>();
+        double[][] spots = new double[items.size()][];
+
+        for (int k = 0; k < items.size(); k++) {
+            int item = items.get(k);
+            boolean rotated = chromosome.rotated(item);
+            double row = chromosome.row(item);
+            double col = chromosome.col(item);
+
+            if (!keepPositions || !isFree(placed, row, col, problem.effectiveHeight(item, rotated),
+                                          problem.effectiveWidth(item, rotated), binHeight, binWidth)) {
+                double[] spot = findFreeSpot(problem, item, bin, placed);
+                if (spot == null) {
+                    continue;
+                }
+                row = spot[0];
+                col = spot[1];
+                rotated = spot[2] != 0;
+            }
+            spots[k] = new double[]{row, col, rotated ? 1 : 0};
+            placed.add(new double[]{row, col, problem.effectiveHeight(item, rotated), problem.effectiveWidth(item, rotated)});
+        }
+        return spots;
+    }
+
+    private static double lostPrice(ProblemInstance problem, List<Integer> items, double[][] spots) {
+        double lost = 0.0;
+        for (int k = 0; k < items.size(); k++) {
+            if (spots[k] == null) {
+                lost += problem.itemPrice(items.get(k));
+            }
+        }
+        return lost;
+    }
+
+    // Lowest, then left-most, free corner position: [row, col, rotated ? 1 : 0], or null
+    private static double[] findFreeSpot(ProblemInstance problem, int item, int bin, List<double[]> placed) {
+        double binWidth = problem.binWidth(bin);
+        double binHeight = problem.binHeight(bin);
+
+        List<double[]> corners = new ArrayList<>();
+        corners.add(new double[]{0, 0});
+        for (double[] rect : placed) {
+            corners.add(new double[]{rect[0] + rect[2], rect[1]});
+            corners.add(new double[]{rect[0], rect[1] + rect[3]});
+            corners.add(new double[]{rect[0] + rect[2], 0});
+            corners.add(new double[]{0, rect[1] + rect[3]});
+        }
+        corners.sort(Comparator.<double[]>comparingDouble(c -> c[0]).thenComparingDouble(c -> c[1]));
+
+        for (double[] corner : corners) {
+            for (int orientation = 0; orientation < 2; orientation++) {
+                boolean rotated = orientation == 1;
+                if (!problem.fits(item, bin, rotated)) {
+                    continue;
+                }
+                double height = problem.effectiveHeight(item, rotated);
+                double width = problem.effectiveWidth(item, rotated);
+                if (isFree(placed, corner[0], corner[1], height, width, binHeight, binWidth)) {
+                    return new double[]{corner[0], corner[1], orientation};
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isFree(List<double[]> placed, double row, double col, double height, double width,
+                                  double binHeight, double binWidth) {
+        if (row < 0 || col < 0 || row + height > binHeight || col + width > binWidth) {
+            return false;
+        }
+        for (double[] rect : placed) {
+            if (row < rect[0] + rect[2] && rect[0] < row + height
+                    && col < rect[1] + rect[3] && rect[1] < col + width) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,125 @@
+package com.ga_inventory_opt;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
+
+/**
+ * Recommended GA parameters per instance class, as written by {@link ParameterTuner}.
+ *
+ * An instance is described by its {@link Features}: number of item units, number of bins and
+ * tightness (total item area / total bin area; above 1 not everything can be stored). Classes are
+ * matched in file order and the first one whose bounds all hold wins, so the tuner writes them from
+ * the smallest bounds to the unbounded catch-all. Stored as JSON:
+ * <pre>
+ * {"version": 1, "timeWeight": 0.02, "classes": [
+ *   {"name": "small-few-loose", "maxUnits": 60, "maxBins": 4, "maxTightness": 1.0,
+ *    "parameters": {"populationSize": 120, "maxGenerations": 100, "mutationRate": 0.2, "crossoverRate": 0.3},
+ *    "score": 0.97, "seconds": 0.4}, ...]}
+ * </pre>
+ */
+public class TuningProfile {
+    public int version = 1;
+    public String createdAt;
+    public double timeWeight;
+    public List<InstanceClass> classes = new ArrayList<>();
+
+    public static class InstanceClass {
+        public String name;
+        public int maxUnits;
+        public int maxBins;
+        public double maxTightness;
+        public Parameters parameters;
+        public double score;   // tuning objective of the recommended parameters
+        public double seconds; // mean run time of the recommended parameters
+
+        public InstanceClass() {
+        }
+
+        public InstanceClass(String name, int maxUnits, int maxBins, double maxTightness) {
+            this.name = name;
+            this.maxUnits = maxUnits;
+            this.maxBins = maxBins;
+            this.maxTightness = maxTightness;
+        }
+
+        public boolean matches(Features features) {
+            return features.units() <= maxUnits && features.bins() <= maxBins && features.tightness() <= maxTightness;
+        }
+    }
+
+    /** Immutable, so shared instances such as {@link RunOptimizer#DEFAULT_PARAMETERS} cannot be changed. */
+    public record Parameters(int populationSize, int maxGenerations, double mutationRate, double crossoverRate) {
+
+        void applyTo(InventoryOptimizationWithPositions optimizer) {
+            optimizer.setPopulationSize(populationSize);
+            optimizer.setMaxGenerations(maxGenerations);
+            optimizer.setMutationRate(mutationRate);
+            optimizer.setCrossoverRate(crossoverRate);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("pop=%d gen=%d mut=%s cx=%s", populationSize, maxGenerations, mutationRate, crossoverRate);
+        }
+    }
+
+    public record Features(int units, int bins, double tightness) {
+        public static Features of(List<Item> items, List<Bin> bins) {
+            double itemArea = 0.0;
+            for (Item item : items) {
+                itemArea += item.width * item.height;
+            }
+            double binArea = 0.0;
+            for (Bin bin : bins) {
+                binArea += bin.width * bin.height;
+            }
+            return new Features(items.size(), bins.size(), binArea == 0 ? Double.MAX_VALUE : itemArea / binArea);
+        }
+    }
+
+    /** Parameters of the first class matching the features, or null if none does. */
+    public Parameters recommend(Features features) {
+        for (InstanceClass instanceClass : classes) {
+            if (instanceClass.matches(features)) {
+                return instanceClass.parameters;
+            }
+        }
+        return null;
+    }
+
+    // ---------- Loading / Saving ----------
+    public static TuningProfile load(Path file) throws IOException {
+        return new ObjectMapper().readValue(file.toFile(), TuningProfile.class);
+    }
+
+    public void save(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), this);
+    }
+
+    /**
+     * Loads the profile configured through system properties, or returns null when disabled or when
+     * there is no profile file: ga_opt.profile.enabled (default true), ga_opt.profile (default
+     * ~/.ga_opt/profile.json).
+     */
+    public static TuningProfile fromSystemProperties() throws IOException {
+        if (!Boolean.parseBoolean(System.getProperty("ga_opt.profile.enabled", "true"))) {
+            return null;
+        }
+        Path file = Paths.get(System.getProperty("ga_opt.profile",
+                Paths.get(System.getProperty("user.home"), ".ga_opt", "profile.json").toString()));
+        return Files.isRegularFile(file) ? load(file) : null;
+    }
+}
@@ -0,0 +1,134 @@
+package com.ga_inventory_opt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
+
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.MSeq;
+import io.jenetics.util.RandomRegistry;
+
+public class BatchFitnessEvaluatorTest {
+
+    private final ProblemInstance problem = ProblemInstance.of(
+            List.of(new Item(1, 5.0, 3.0, 25.0), new Item(2, 7.0, 4.0, 35.0), new Item(3, 6.0, 5.0, 30.0),
+                    new Item(4, 4.0, 3.5, 20.0), new Item(5, 8.0, 6.0, 45.0), new Item(6, 30.0, 30.0, 90.0)),
+            List.of(new Bin(1, 20.0, 30.0), new Bin(2, 15.0, 25.0), new Bin(3, 6.0, 6.0)));
+
+    private ISeq<Phenotype<PackingGene, Double>> randomPopulation(int size) {
+        return RandomRegistry.with(new Random(11), r -> {
+            List<Phenotype<PackingGene, Double>> population = new ArrayList<>();
+            for (int k = 0; k < size; k++) {
+                population.add(Phenotype.of(Genotype.of(PackingChromosome.of(problem)), 0));
+            }
+            return ISeq.of(population);
+        });
+    }
+
+    /**
+     * Test oracle: the per-individual fitness as it was before the batch kernel, kept verbatim apart
+     * from reading the bins of a PackingChromosome. Items are grouped per bin and every outside item is
+     * checked against every bin.
+     */
+    private static double referenceFitness(ProblemInstance problem, double W, Genotype<PackingGene> gt) {
+        int numItems = problem.numItems();
+        int numBins = problem.numBins();
+        PackingChromosome chromosome = (PackingChromosome) gt.chromosome();
+
+        List<List<Integer>> itemsInBins = new ArrayList<>();
+        for (int i = 0; i <= numBins; i++) {
+            itemsInBins.add(new ArrayList<>());
+        }
+        for (int i = 0; i < numItems; i++) {
+            itemsInBins.get(chromosome.bin(i)).add(i);
+        }
+
+        double priceOfStoredProducts = 0.0;
+        double areaOfStoredProducts = 0.0;
+        double[] binUsedAreas = new double[numBins];
+        for (int binIdx = 1; binIdx <= numBins; binIdx++) {
+            double binUsedArea = 0.0;
+            for (int itemIdx : itemsInBins.get(binIdx)) {
+                areaOfStoredProducts += problem.itemArea(itemIdx);
+                priceOfStoredProducts += problem.itemPrice(itemIdx);
+                binUsedArea += problem.itemArea(itemIdx);
+            }
+            binUsedAreas[binIdx - 1] = binUsedArea;
+        }
+
+        double binOptimizedScore;
+        List<Integer> itemsOutside = itemsInBins.get(0);
+        if (!itemsOutside.isEmpty()) {
+            int binScoreSum = 0;
+            for (int binIdx = 0; binIdx < numBins; binIdx++) {
+                double freeArea = problem.binArea(binIdx) - binUsedAreas[binIdx];
+                boolean canFitAnyOutsideItem = false;
+                for (int outsideItemIdx : itemsOutside) {
+                    if (problem.itemArea(outsideItemIdx) <= freeArea) {
+                        canFitAnyOutsideItem = true;
+                        break;
+                    }
+                }
+                if (!canFitAnyOutsideItem) {
+                    binScoreSum += 1;
+                }
+            }
+            binOptimizedScore = (double) binScoreSum / numBins;
+        } else {
+            binOptimizedScore = 1.0;
+        }
+
+        double totalInventoryPrice = problem.totalInventoryPrice();
+        double totalBinArea = problem.totalBinArea();
+        double valueScore = (totalInventoryPrice == 0) ? 0.0 : priceOfStoredProducts / totalInventoryPrice;
+        double areaScore = (totalBinArea == 0) ? 0.0 : areaOfStoredProducts / totalBinArea;
+        return W * valueScore + ((1 - W) / 2.0) * areaScore + ((1 - W) / 2.0) * binOptimizedScore;
+    }
+
+    @Test
+    public void perIndividualFitnessMatchesReference() {
+        for (Phenotype<PackingGene, Double> phenotype : randomPopulation(500)) {
+            Genotype<PackingGene> genotype = phenotype.genotype();
+            assertEquals(referenceFitness(problem, 0.7, genotype),
+                    InventoryOptimizationWithPositions.fitness(problem, 0.7, genotype), 0.0);
+        }
+    }
+
+    @Test
+    public void batchScoresMatchReferenceFitness() {
+        // More than one chunk, so the parallel path is exercised
+        ISeq<Phenotype<PackingGene, Double>> population = randomPopulation(3 * BatchFitnessEvaluator.CHUNK_SIZE + 5);
+
+        ISeq<Phenotype<PackingGene, Double>> evaluated = new BatchFitnessEvaluator(problem, 0.7).eval(population);
+
+        assertEquals(population.size(), evaluated.size());
+        for (int k = 0; k < population.size(); k++) {
+            Genotype<PackingGene> genotype = population.get(k).genotype();
+            assertSame(genotype, evaluated.get(k).genotype());
+            assertEquals(referenceFitness(problem, 0.7, genotype), evaluated.get(k).fitness(), 0.0);
+        }
+    }
+
+    @Test
+    public void alreadyEvaluatedPhenotypesAreKept() {
+        MSeq<Phenotype<PackingGene, Double>> mutable = randomPopulation(4).copy();
+        Phenotype<PackingGene, Double> scored = mutable.get(2).withFitness(-1.0);
+        mutable.set(2, scored);
+        ISeq<Phenotype<PackingGene, Double>> population = mutable.toISeq();
+
+        ISeq<Phenotype<PackingGene, Double>> evaluated = new BatchFitnessEvaluator(problem, 0.7).eval(population);
+
+        assertSame(scored, evaluated.get(2));
+        assertEquals(referenceFitness(problem, 0.7, population.get(0).genotype()), evaluated.get(0).fitness(), 0.0);
+    }
+}
@@ -0,0 +1,235 @@
+package com.ga_inventory_opt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.ItemPlacement;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.OptimizationResult;
+
+/**
+ * Quality-versus-time gate: runs the optimizer on fixed golden instances, once for each of a few
+ * fixed seeds, and fails if the median run reaches less fitness, stored value or stored area than its
+ * recorded minimum, if the slowest run needs more wall-clock time or full evaluations than its budget,
+ * or if any run returns a placement that overlaps another item or leaves its bin.
+ *
+ * The limits come from the spread over seeds 1 to 11, noted next to each instance: quality minimums
+ * sit about 5% below the worst of those runs, and evaluation budgets about 25% above it. A change that
+ * only moves runs around within their usual spread therefore passes; one that makes the typical run
+ * clearly worse fails. Wall-clock time depends on the machine, so time budgets stay roughly ten times
+ * above a typical run. Exact seeded results are checked only by {@link #seededRunsAreIdentical()}.
+ */
+public class OptimizerRegressionTest {
+
+    // One golden instance with its parameters, quality minimums and budgets
+    private record Golden(String name, List<Item> items, List<Bin> bins, double w, int populationSize,
+                          int maxGenerations, long[] seeds, double minFitness, double minValuePercentage,
+                          double minAreaPercentage, long maxMillis, long maxFullEvaluations) {}
+
+    // Every golden instance runs once per seed; quality is gated on the median run
+    private static final long[] SEEDS = {1, 2, 3, 4, 5};
+
+    private static List<Golden> goldenInstances() {
+        List<Golden> golden = new ArrayList<>();
+
+        // Example from TestOptimizer: everything fits
+        List<Item> example = List.of(
+                new Item(1, 5.0, 3.0, 25.0), new Item(2, 7.0, 4.0, 35.0), new Item(3, 6.0, 5.0, 30.0),
+                new Item(4, 4.0, 3.5, 20.0), new Item(5, 8.0, 6.0, 45.0), new Item(6, 3.5, 2.5, 15.0),
+                new Item(7, 5.5, 4.5, 28.0), new Item(8, 6.5, 5.5, 38.0));
+        List<Bin> exampleBins = List.of(new Bin(1, 20.0, 30.0), new Bin(2, 15.0, 25.0),
+                new Bin(3, 18.0, 28.0), new Bin(4, 25.0, 35.0));
+        // Seeds 1-11: fitness 0.8858, value 100.00%, area 8.68%, 120 full evaluations, ~0.5 s
+        golden.add(new Golden("example", example, exampleBins, 0.75, 120, 150, SEEDS,
+                0.84, 95.0, 8.2, 5_000, 150));
+
+        // Item types of the Python bridge example, 50 units over 4 bins
+        // Seeds 1-11: fitness 0.8854, value 100.00%, area 8.33%, 604-797 full evaluations, ~0.9 s
+        golden.add(new Golden("bridge", bridgeItems(1), bridgeBins(), 0.75, 300, 150, SEEDS,
+                0.84, 95.0, 7.9, 10_000, 1_000));
+
+        // Same types, 200 units
+        // Runs end in one of two layouts depending on the seed (fitness about 0.79 or 0.92), so the
+        // minimum sits below the lower one
+        // Seeds 1-11: fitness 0.7872-0.9167, value 99.40-100.00%, area 33.30-33.33%,
+        // 2019-3240 full evaluations, ~3 s
+        golden.add(new Golden("bridge-x4", bridgeItems(4), bridgeBins(), 0.75, 300, 150, SEEDS,
+                0.74, 94.0, 31.5, 45_000, 4_000));
+
+        // Oversubscribed: roughly twice the item area the bins hold, plus items that fit no bin
+        // Seeds 1-11: fitness 0.5160-0.5595, value 51.78-54.36%, area 92.38-95.43%,
+        // 816-1679 full evaluations, ~0.3 s
+        golden.add(new Golden("tight", tightItems(), List.of(new Bin(1, 30, 20), new Bin(2, 25, 25), new Bin(3, 12, 40)),
+                0.75, 200, 150, SEEDS, 0.49, 49.0, 87.5, 10_000, 2_100));
+
+        return golden;
+    }
+
+    private static List<Item> bridgeItems(int multiplier) {
+        int[][] types = {{5, 3, 25, 20}, {10, 15, 55, 10}, {15, 10, 45, 15}, {25, 20, 75, 5}};
+        List<Item> items = new ArrayList<>();
+        for (int[] type : types) {
+            for (int q = 0; q < type[3] * multiplier; q++) {
+                items.add(new Item(items.size() + 1, type[0], type[1], type[2]));
+            }
+        }
+        return items;
+    }
+
+    private static List<Bin> bridgeBins() {
+        return List.of(new Bin(1, 120, 30), new Bin(2, 500, 50), new Bin(3, 100, 100), new Bin(4, 200, 200));
+    }
+
+    private static List<Item> tightItems() {
+        Random random = new Random(2024);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            double width = 3 + random.nextInt(10);
+            double height = 3 + random.nextInt(10);
+            items.add(new Item(i + 1, width, height, Math.round(width * height * (0.5 + random.nextDouble()))));
+        }
+        items.add(new Item(61, 50, 50, 400));
+        items.add(new Item(62, 45, 45, 300));
+        return items;
+    }
+
+    @Test
+    public void goldenInstancesMeetQualityWithinBudget() {
+        List<String> failures = new ArrayList<>();
+        StringBuilder table = new StringBuilder(String.format("%n%-10s %24s %24s %24s %18s %20s  %s%n",
+                "instance", "fitness median [range]", "value% median [range]", "area% median [range]",
+                "max ms (budget)", "max evals (budget)", "status"));
+
+        for (Golden golden : goldenInstances()) {
+            int runs = golden.seeds.length;
+            double[] fitness = new double[runs];
+            double[] value = new double[runs];
+            double[] area = new double[runs];
+            long millis = 0;
+            long fullEvaluations = 0;
+            List<String> problems = new ArrayList<>();
+            for (int r = 0; r < runs; r++) {
+                InventoryOptimizationWithPositions optimizer = new InventoryOptimizationWithPositions();
+                optimizer.setWeightW(golden.w);
+                optimizer.setPopulationSize(golden.populationSize);
+                optimizer.setMaxGenerations(golden.maxGenerations);
+                optimizer.setSeed(golden.seeds[r]);
+
+                long start = System.nanoTime();
+                OptimizationResult result = optimizer.optimize(golden.items, golden.bins);
+                millis = Math.max(millis, (System.nanoTime() - start) / 1_000_000);
+
+                fitness[r] = result.fitness;
+                value[r] = result.valuePercentage;
+                area[r] = result.areaPercentage;
+                fullEvaluations = Math.max(fullEvaluations, result.fullEvaluations);
+                for (String problem : geometryProblems(golden, result)) {
+                    problems.add("seed " + golden.seeds[r] + ": " + problem);
+                }
+            }
+            Arrays.sort(fitness);
+            Arrays.sort(value);
+            Arrays.sort(area);
+
+            if (median(fitness) < golden.minFitness) problems.add("fitness");
+            if (median(value) < golden.minValuePercentage) problems.add("value");
+            if (median(area) < golden.minAreaPercentage) problems.add("area");
+            if (millis > golden.maxMillis) problems.add("time");
+            if (fullEvaluations > golden.maxFullEvaluations) problems.add("evaluations");
+
+            table.append(String.format("%-10s %6.4f [%6.4f-%6.4f] %6.2f [%6.2f-%6.2f] %6.2f [%6.2f-%6.2f] %7d (%8s) %9d (%8s)  %s%n",
+                    golden.name, median(fitness), fitness[0], fitness[runs - 1],
+                    median(value), value[0], value[runs - 1],
+                    median(area), area[0], area[runs - 1],
+                    millis, budget(golden.maxMillis), fullEvaluations, budget(golden.maxFullEvaluations),
+                    problems.isEmpty() ? "ok" : "REGRESSION " + problems));
+            table.append(String.format("%-10s %24.4f %24.2f %24.2f%n",
+                    "  (min)", golden.minFitness, golden.minValuePercentage, golden.minAreaPercentage));
+            if (!problems.isEmpty()) {
+                failures.add(golden.name + ": " + problems);
+            }
+        }
+
+        System.out.println(table);
+        if (!failures.isEmpty()) {
+            fail("Optimizer regressions: " + failures + table);
+        }
+    }
+
+    // Middle of a sorted array with an odd number of values
+    private static double median(double[] sorted) {
+        return sorted[sorted.length / 2];
+    }
+
+    @Test
+    public void seededRunsAreIdentical() {
+        Golden tight = goldenInstances().get(3);
+        OptimizationResult first = seededRun(tight, 11);
+        OptimizationResult second = seededRun(tight, 11);
+
+        assertEquals(first.fitness, second.fitness, 0.0);
+        assertEquals(first.itemsInBins, second.itemsInBins);
+        assertEquals(first.itemPlacements.size(), second.itemPlacements.size());
+        for (int i = 0; i < first.itemPlacements.size(); i++) {
+            ItemPlacement a = first.itemPlacements.get(i);
+            ItemPlacement b = second.itemPlacements.get(i);
+            assertEquals(a.itemIdx, b.itemIdx);
+            assertEquals(a.binIdx, b.binIdx);
+            assertEquals(a.row, b.row, 0.0);
+            assertEquals(a.col, b.col, 0.0);
+            assertEquals(a.rotated, b.rotated);
+        }
+        assertEquals(first.fullEvaluations, second.fullEvaluations);
+    }
+
+    private static OptimizationResult seededRun(Golden golden, long seed) {
+        InventoryOptimizationWithPositions optimizer = new InventoryOptimizationWithPositions();
+        optimizer.setWeightW(golden.w);
+        optimizer.setPopulationSize(golden.populationSize);
+        optimizer.setMaxGenerations(120);
+        optimizer.setSeed(seed);
+        return optimizer.optimize(golden.items, golden.bins);
+    }
+
+    private static String budget(long value) {
+        return value == Long.MAX_VALUE ? "-" : String.valueOf(value);
+    }
+
+    // Strict geometry: every stored item inside its bin and no two items in a bin overlapping
+    private static List<String> geometryProblems(Golden golden, OptimizationResult result) {
+        List<String> problems = new ArrayList<>();
+        List<ItemPlacement> placements = result.itemPlacements;
+        double eps = 1e-9;
+        for (int i = 0; i < placements.size(); i++) {
+            ItemPlacement a = placements.get(i);
+            if (a.binIdx == 0) continue;
+            Item itemA = golden.items.get(a.itemIdx);
+            Bin bin = golden.bins.get(a.binIdx - 1);
+            double heightA = a.rotated ? itemA.width : itemA.height;
+            double widthA = a.rotated ? itemA.height : itemA.width;
+            if (a.row < -eps || a.col < -eps || a.row + heightA > bin.height + eps || a.col + widthA > bin.width + eps) {
+                problems.add("item " + itemA.number + " outside bin " + bin.number);
+            }
+            for (int j = i + 1; j < placements.size(); j++) {
+                ItemPlacement b = placements.get(j);
+                if (b.binIdx != a.binIdx) continue;
+                Item itemB = golden.items.get(b.itemIdx);
+                double heightB = b.rotated ? itemB.width : itemB.height;
+                double widthB = b.rotated ? itemB.height : itemB.width;
+                if (a.row < b.row + heightB - eps && b.row < a.row + heightA - eps
+                        && a.col < b.col + widthB - eps && b.col < a.col + widthA - eps) {
+                    problems.add("items " + itemA.number + " and " + itemB.number + " overlap");
+                }
+            }
+        }
+        return problems;
+    }
+}
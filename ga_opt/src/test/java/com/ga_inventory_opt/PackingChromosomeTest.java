@@ -0,0 +1,69 @@
+package com.ga_inventory_opt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
+
+import io.jenetics.util.ISeq;
+
+public class PackingChromosomeTest {
+
+    private final ProblemInstance problem = ProblemInstance.of(
+            List.of(new Item(1, 5.0, 3.0, 25.0), new Item(2, 7.0, 4.0, 35.0), new Item(3, 6.0, 5.0, 30.0)),
+            List.of(new Bin(1, 20.0, 30.0), new Bin(2, 15.0, 25.0)));
+
+    @Test
+    public void builderEditsDoNotTouchSourceChromosome() {
+        PackingChromosome original = new PackingChromosome.Builder(problem)
+                .set(0, 1, 2.0, 3.0, false)
+                .set(1, 2, 4.0, 5.0, true)
+                .set(2, 0, 0.0, 0.0, false)
+                .build();
+
+        PackingChromosome edited = original.toBuilder().bin(0, 2).rotated(0, true).build();
+
+        assertEquals(1, original.bin(0));
+        assertFalse(original.rotated(0));
+        assertEquals(2, edited.bin(0));
+        assertTrue(edited.rotated(0));
+        assertEquals(2.0, edited.row(0), 0.0);
+        assertTrue(original.rotated(1));
+    }
+
+    @Test
+    public void swapExchangesWholeItemsAfterCut() {
+        PackingChromosome.Builder first = new PackingChromosome.Builder(problem)
+                .set(0, 1, 1.0, 1.0, false).set(1, 1, 2.0, 2.0, false).set(2, 1, 3.0, 3.0, false);
+        PackingChromosome.Builder second = new PackingChromosome.Builder(problem)
+                .set(0, 2, 4.0, 4.0, true).set(1, 2, 5.0, 5.0, true).set(2, 2, 6.0, 6.0, true);
+
+        first.swap(1, 3, second);
+        PackingChromosome a = first.build();
+        PackingChromosome b = second.build();
+
+        assertEquals(1, a.bin(0));
+        assertEquals(2, a.bin(1));
+        assertEquals(5.0, a.row(1), 0.0);
+        assertTrue(a.rotated(2));
+        assertEquals(2, b.bin(0));
+        assertEquals(1, b.bin(2));
+        assertFalse(b.rotated(2));
+    }
+
+    @Test
+    public void genesRoundTripThroughJeneticsInterface() {
+        PackingChromosome chromosome = PackingChromosome.of(problem);
+        assertTrue(chromosome.isValid());
+
+        PackingChromosome copy = chromosome.newInstance(ISeq.of(chromosome));
+        assertEquals(chromosome, copy);
+        assertEquals(chromosome.get(1), copy.get(1));
+    }
+}
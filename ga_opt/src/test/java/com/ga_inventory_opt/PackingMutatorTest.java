@@ -0,0 +1,151 @@
+package com.ga_inventory_opt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
+
+import io.jenetics.Genotype;
+import io.jenetics.Optimize;
+import io.jenetics.Phenotype;
+import io.jenetics.engine.EvolutionDurations;
+import io.jenetics.engine.EvolutionResult;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.MSeq;
+import io.jenetics.util.RandomRegistry;
+
+public class PackingMutatorTest {
+
+    // Square items, so every operator is applicable to a stored item; item 7 fits no bin
+    private final ProblemInstance problem = ProblemInstance.of(
+            List.of(new Item(1, 4, 4, 10), new Item(2, 5, 5, 12), new Item(3, 3, 3, 8), new Item(4, 6, 6, 20),
+                    new Item(5, 4, 4, 9), new Item(6, 2, 2, 5), new Item(7, 60, 60, 100)),
+            List.of(new Bin(1, 20, 20), new Bin(2, 15, 25)));
+
+    @Test
+    public void operatorsKeepLengthAndFeasibleAssignments() {
+        PackingMutator mutator = new PackingMutator(1.0, problem);
+        RandomRegistry.with(new Random(3), random -> {
+            for (int round = 0; round < 50; round++) {
+                ISeq<Phenotype<PackingGene, Double>> population = randomPopulation(20, round);
+                for (Phenotype<PackingGene, Double> child : mutator.alter(population, round).population()) {
+                    assertFeasible((PackingChromosome) child.genotype().chromosome());
+                }
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void crossoverInheritsEachItemWholeFromOneParent() {
+        ItemAlignedCrossover crossover = new ItemAlignedCrossover(1.0);
+        RandomRegistry.with(new Random(5), random -> {
+            for (int round = 0; round < 50; round++) {
+                MSeq<Phenotype<PackingGene, Double>> population = MSeq.of(randomPopulation(2, round));
+                PackingChromosome first = (PackingChromosome) population.get(0).genotype().chromosome();
+                PackingChromosome second = (PackingChromosome) population.get(1).genotype().chromosome();
+
+                assertEquals(2, crossover.recombine(population, new int[]{0, 1}, round));
+
+                PackingChromosome child = (PackingChromosome) population.get(0).genotype().chromosome();
+                assertEquals(first.length(), child.length());
+                assertFeasible(child);
+                // A prefix of items from the first parent, the rest from the second
+                int cut = 0;
+                while (cut < child.length() && sameItem(child, first, cut)) cut++;
+                for (int i = cut; i < child.length(); i++) {
+                    assertTrue(sameItem(child, second, i));
+                }
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void successRatesShiftOperatorProbabilities() {
+        // Fitness is the number of stored items: with everything stored, EVICT always loses fitness
+        // while ROTATE (square items) never changes it
+        PackingMutator mutator = new PackingMutator(1.0, problem);
+        RandomRegistry.with(new Random(7), random -> {
+            for (int generation = 1; generation <= 20; generation++) {
+                ISeq<Phenotype<PackingGene, Double>> parents = allStoredPopulation(40).map(p -> p.withFitness(stored(p)));
+                ISeq<Phenotype<PackingGene, Double>> offspring = mutator.alter(parents, generation).population()
+                        .map(p -> p.isEvaluated() ? p : p.withFitness(stored(p)));
+                mutator.update(EvolutionResult.of(Optimize.MAXIMUM, offspring, generation, EvolutionDurations.ZERO, 0, 0, 0));
+            }
+            return null;
+        });
+
+        double[] probabilities = mutator.operatorProbabilities();
+        assertTrue(probabilities[PackingMutator.EVICT] < 0.25);
+        assertTrue(probabilities[PackingMutator.EVICT] < probabilities[PackingMutator.ROTATE]);
+        assertEquals(1.0, probabilities[0] + probabilities[1] + probabilities[2] + probabilities[3], 1e-9);
+    }
+
+    @Test
+    public void mutationsOfUnevaluatedParentsAreNotCredited() {
+        PackingMutator mutator = new PackingMutator(1.0, problem);
+        RandomRegistry.with(new Random(11), random -> {
+            ISeq<Phenotype<PackingGene, Double>> offspring = mutator.alter(allStoredPopulation(40), 1).population()
+                    .map(p -> p.withFitness(stored(p) + 1.0));
+            mutator.update(EvolutionResult.of(Optimize.MAXIMUM, offspring, 1, EvolutionDurations.ZERO, 0, 0, 0));
+            return null;
+        });
+
+        assertArrayEquals(new double[]{0.25, 0.25, 0.25, 0.25}, mutator.operatorProbabilities(), 1e-12);
+    }
+
+    // ---------- Helpers ----------
+    private ISeq<Phenotype<PackingGene, Double>> randomPopulation(int size, long generation) {
+        List<Phenotype<PackingGene, Double>> population = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            population.add(Phenotype.<PackingGene, Double>of(Genotype.of(PackingChromosome.of(problem)), generation)
+                    .withFitness(0.0));
+        }
+        return ISeq.of(population);
+    }
+
+    private ISeq<Phenotype<PackingGene, Double>> allStoredPopulation(int size) {
+        PackingChromosome.Builder builder = new PackingChromosome.Builder(problem);
+        for (int i = 0; i < problem.numItems() - 1; i++) {
+            builder.set(i, 1 + i % 2, 0.0, 0.0, false);
+        }
+        Genotype<PackingGene> genotype = Genotype.of(builder.build());
+        List<Phenotype<PackingGene, Double>> population = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            population.add(Phenotype.of(genotype, 1));
+        }
+        return ISeq.of(population);
+    }
+
+    private static double stored(Phenotype<PackingGene, Double> phenotype) {
+        PackingChromosome chromosome = (PackingChromosome) phenotype.genotype().chromosome();
+        int stored = 0;
+        for (int i = 0; i < chromosome.length(); i++) {
+            if (chromosome.bin(i) != 0) stored++;
+        }
+        return stored;
+    }
+
+    private void assertFeasible(PackingChromosome chromosome) {
+        assertEquals(problem.numItems(), chromosome.length());
+        assertTrue(chromosome.isValid());
+        for (int i = 0; i < chromosome.length(); i++) {
+            int bin = chromosome.bin(i);
+            assertTrue("item " + i + " in bin " + bin, bin == 0 || problem.fits(i, bin - 1, chromosome.rotated(i)));
+        }
+    }
+
+    private static boolean sameItem(PackingChromosome a, PackingChromosome b, int item) {
+        return a.bin(item) == b.bin(item) && a.row(item) == b.row(item) && a.col(item) == b.col(item)
+                && a.rotated(item) == b.rotated(item);
+    }
+}
@@ -0,0 +1,175 @@
+package com.ga_inventory_opt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.ItemPlacement;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.OptimizationResult;
+
+public class PlacementSessionTest {
+
+    // Strict overlap / bounds check of a session layout
+    private static void assertLegal(PlacementSession session) {
+        List<Item> items = session.items();
+        List<Bin> bins = session.bins();
+        OptimizationResult result = session.snapshot();
+        List<ItemPlacement> placements = result.itemPlacements;
+        for (int i = 0; i < placements.size(); i++) {
+            ItemPlacement a = placements.get(i);
+            if (a.binIdx == 0) continue;
+            Item itemA = items.get(a.itemIdx);
+            double heightA = a.rotated ? itemA.width : itemA.height;
+            double widthA = a.rotated ? itemA.height : itemA.width;
+            Bin bin = bins.get(a.binIdx - 1);
+            assertTrue(a.row >= 0 && a.col >= 0 && a.row + heightA <= bin.height + 1e-9 && a.col + widthA <= bin.width + 1e-9);
+            for (int j = i + 1; j < placements.size(); j++) {
+                ItemPlacement b = placements.get(j);
+                if (b.binIdx != a.binIdx) continue;
+                Item itemB = items.get(b.itemIdx);
+                double heightB = b.rotated ? itemB.width : itemB.height;
+                double widthB = b.rotated ? itemB.height : itemB.width;
+                boolean overlap = a.row < b.row + heightB - 1e-9 && b.row < a.row + heightA - 1e-9
+                        && a.col < b.col + widthB - 1e-9 && b.col < a.col + widthA - 1e-9;
+                assertFalse("Items " + itemA.number + " and " + itemB.number + " overlap", overlap);
+            }
+        }
+    }
+
+    @Test
+    public void freeRectangleIndexTracksMaximalFreeSpace() {
+        FreeRectangleIndex index = new FreeRectangleIndex(10, 10);
+        index.occupy(0, 0, 4, 4);
+
+        // Right of and below the item: two overlapping maximal rectangles
+        assertEquals(2, index.size());
+        assertEquals(60.0, index.largestFreeRectangle(), 1e-9);
+        assertEquals(84.0, index.freeArea(), 1e-9);
+        assertEquals(4, index.find(6, 10)[0], 1e-9);
+        assertEquals(0, index.find(6, 10)[1], 1e-9);
+        assertTrue(index.largestFreeRectangle() < index.freeArea());
+
+        // Freeing the item restores one rectangle covering the whole bin
+        index.rebuild(10, 10, List.of());
+        assertEquals(1, index.size());
+        assertEquals(100.0, index.largestFreeRectangle(), 0.0);
+        assertEquals(index.freeArea(), index.largestFreeRectangle(), 0.0);
+    }
+
+    @Test
+    public void addPlacesIntoFreeSpaceAndRemoveLetsWaitingItemsIn() {
+        try (PlacementSession session = new PlacementSession(List.of(new Bin(1, 10, 10)), 0.7)) {
+            ItemPlacement first = session.add(new Item(1, 10, 6, 50));
+            ItemPlacement second = session.add(new Item(2, 10, 4, 30));
+            ItemPlacement third = session.add(new Item(3, 8, 8, 40));
+
+            assertEquals(1, first.binIdx);
+            assertEquals(1, second.binIdx);
+            assertEquals(0, third.binIdx); // No room left
+            assertEquals(2, third.itemIdx);
+
+            assertTrue(session.remove(1));
+            assertFalse(session.remove(1));
+            assertEquals(0, session.placement(3).binIdx); // 8x8 still does not fit beside the 10x4 item
+            assertEquals(1, session.placement(3).itemIdx); // Indices follow items() after a removal
+            assertEquals(3, session.items().get(session.placement(3).itemIdx).number);
+
+            assertTrue(session.remove(2));
+            assertEquals(1, session.placement(3).binIdx);
+            assertEquals(0, session.movedItems());
+            assertLegal(session);
+        }
+    }
+
+    @Test
+    public void resizeBinMovesOnlyCutOffItems() {
+        List<Bin> bins = List.of(new Bin(1, 20, 10), new Bin(2, 10, 10));
+        try (PlacementSession session = new PlacementSession(bins, 0.7)) {
+            session.add(new Item(1, 5, 5, 10));
+            session.add(new Item(2, 5, 5, 10));
+            session.add(new Item(3, 5, 5, 10));
+            ItemPlacement before = session.placement(1);
+
+            // Shrink whichever bin holds the items to 5 x 5: only one of them can stay
+            int bin = session.bins().get(before.binIdx - 1).number;
+            int moved = session.resizeBin(bin, 5, 5);
+
+            assertTrue(moved >= 1);
+            assertEquals(moved, session.movedItems());
+            assertEquals(0, session.evictedItems());
+            assertEquals(3, session.items().size());
+            assertLegal(session);
+        }
+    }
+
+    @Test
+    public void resizeBinCountsItemsLeftWithoutRoomAsEvicted() {
+        try (PlacementSession session = new PlacementSession(List.of(new Bin(1, 10, 10)), 0.7)) {
+            session.add(new Item(1, 5, 10, 20));
+            session.add(new Item(2, 5, 10, 10));
+
+            // Halving the only bin leaves room for one item; the other waits instead of moving
+            int moved = session.resizeBin(1, 5, 10);
+
+            assertEquals(0, moved);
+            assertEquals(0, session.movedItems());
+            assertEquals(1, session.evictedItems());
+            assertEquals(1, session.snapshot().itemsInBins.get(0).size());
+            assertLegal(session);
+        }
+    }
+
+    @Test
+    public void itemsThatFitNoBinDoNotTriggerRefinement() throws InterruptedException {
+        // Same fragmented layout as below, but the waiting item is larger than the bin either way
+        List<Item> items = List.of(new Item(1, 3, 3, 5), new Item(2, 12, 6, 100));
+        List<Bin> bins = List.of(new Bin(1, 10, 10));
+        OptimizationResult initial = new OptimizationResult(
+                List.of(List.of(1), List.of(0)),
+                List.of(new ItemPlacement(0, 1, 3.5, 3.5, false), new ItemPlacement(1, 0, 0, 0, false)),
+                0, 5, 9, 0, 9);
+
+        try (PlacementSession session = new PlacementSession(items, bins, initial, 0.7)) {
+            assertTrue(session.fragmentation() > 0.5);
+            session.add(new Item(3, 1, 1, 1));
+            session.awaitRefinement();
+
+            assertEquals(0, session.refinements());
+            assertEquals(0, session.refine());
+        }
+    }
+
+    @Test
+    public void fragmentationTriggersBoundedRefinement() throws InterruptedException {
+        // A small item in the middle of the bin leaves no room for the valuable one
+        List<Item> items = List.of(new Item(1, 3, 3, 5), new Item(2, 10, 6, 100));
+        List<Bin> bins = List.of(new Bin(1, 10, 10));
+        OptimizationResult initial = new OptimizationResult(
+                List.of(List.of(1), List.of(0)),
+                List.of(new ItemPlacement(0, 1, 3.5, 3.5, false), new ItemPlacement(1, 0, 0, 0, false)),
+                0, 5, 9, 0, 9);
+
+        try (PlacementSession session = new PlacementSession(items, bins, initial, 0.7)) {
+            session.setMaxRelocations(2);
+            assertTrue(session.fragmentation() > 0.5);
+            double before = session.snapshot().fitness;
+
+            // Any event re-checks fragmentation and starts the background refinement
+            session.add(new Item(3, 1, 1, 1));
+            session.awaitRefinement();
+            assertEquals(1, session.refinements());
+
+            OptimizationResult after = session.snapshot();
+            assertTrue(after.fitness > before);
+            assertEquals(1, session.placement(2).binIdx);
+            assertTrue(session.movedItems() <= 2);
+            assertLegal(session);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.ga_inventory_opt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.OptimizationResult;
+
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.engine.EvolutionStart;
+import io.jenetics.util.ISeq;
+
+public class PortfolioOptimizerTest {
+
+    private static List<Item> items() {
+        List<Item> items = new ArrayList<>();
+        int number = 0;
+        for (int q = 0; q < 8; q++) items.add(new Item(++number, 5, 3, 25));
+        for (int q = 0; q < 4; q++) items.add(new Item(++number, 10, 15, 55));
+        for (int q = 0; q < 3; q++) items.add(new Item(++number, 15, 10, 45));
+        items.add(new Item(++number, 60, 60, 500)); // Fits no bin
+        return items;
+    }
+
+    private static final List<Bin> BINS = List.of(new Bin(1, 30, 20), new Bin(2, 25, 25));
+
+    @Test
+    public void greedyBaselineIsLegalAndSkipsItemsThatFitNowhere() {
+        ProblemInstance problem = ProblemInstance.of(items(), BINS);
+        PackingChromosome greedy = PortfolioOptimizer.greedy(problem);
+
+        assertEquals(0, greedy.bin(problem.numItems() - 1));
+        assertTrue(StagedConstraint.legalize(problem, greedy).equals(greedy)); // Nothing had to move
+    }
+
+    @Test
+    public void injectReplacesTheWorstIndividual() {
+        ProblemInstance problem = ProblemInstance.of(items(), BINS);
+        PackingChromosome greedy = PortfolioOptimizer.greedy(problem);
+        ISeq<Phenotype<PackingGene, Double>> population = ISeq.of(0.5, 0.1, 0.9).map(fitness ->
+                Phenotype.<PackingGene, Double>of(Genotype.of(PackingChromosome.of(problem).newInstance()), 3)
+                        .withFitness(fitness));
+
+        EvolutionStart<PackingGene, Double> injected = PortfolioOptimizer.inject(EvolutionStart.of(population, 4), greedy);
+
+        assertEquals(4, injected.generation());
+        assertEquals(population.get(0), injected.population().get(0));
+        assertEquals(greedy, injected.population().get(1).genotype().chromosome());
+        assertFalse(injected.population().get(1).isEvaluated());
+        assertEquals(population.get(2), injected.population().get(2));
+    }
+
+    @Test
+    public void portfolioReturnsBestOfStrategiesWithinBudget() {
+        ProblemInstance problem = ProblemInstance.of(items(), BINS);
+        PortfolioOptimizer portfolio = new PortfolioOptimizer(0.75, List.of(
+                new PortfolioOptimizer.Strategy("small", 40, Integer.MAX_VALUE, 0.2, 0.3, 0.75),
+                new PortfolioOptimizer.Strategy("value-first", 40, Integer.MAX_VALUE, 0.4, 0.5, 0.9)));
+
+        long start = System.nanoTime();
+        OptimizationResult result = portfolio.optimize(problem, Duration.ofMillis(500));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        double greedyFitness = InventoryOptimizationWithPositions.fitness(problem, 0.75,
+                Genotype.of(PortfolioOptimizer.greedy(problem)));
+        assertTrue(result.fitness >= greedyFitness);
+        assertTrue("Took " + elapsedMillis + " ms", elapsedMillis < 5000);
+
+        List<PortfolioOptimizer.Outcome> outcomes = portfolio.lastOutcomes();
+        assertEquals(3, outcomes.size());
+        assertTrue(outcomes.stream().anyMatch(o -> o.name().equals("greedy") && o.fitness() == greedyFitness));
+        assertTrue(outcomes.stream().filter(o -> !o.name().equals("greedy")).allMatch(o -> o.generations() > 0));
+        assertTrue(result.fullEvaluations > 0);
+        assertTrue(result.fullEvaluations + result.savedEvaluations >= 2 * 40); // At least one generation each
+    }
+
+    @Test
+    public void strategiesStopInsideAGenerationAtTheDeadline() {
+        // 200 items and a population of 2000: one generation takes far longer than the budget
+        List<Item> items = new ArrayList<>();
+        for (int number = 1; number <= 200; number++) {
+            items.add(new Item(number, 3 + number % 7, 2 + number % 5, 10 + number % 13));
+        }
+        ProblemInstance problem = ProblemInstance.of(items, List.of(new Bin(1, 60, 40), new Bin(2, 50, 50)));
+        PortfolioOptimizer portfolio = new PortfolioOptimizer(0.75, List.of(
+                new PortfolioOptimizer.Strategy("huge", 2000, Integer.MAX_VALUE, 0.2, 0.3, 0.75)));
+
+        long start = System.nanoTime();
+        OptimizationResult result = portfolio.optimize(problem, Duration.ofMillis(200));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue("Took " + elapsedMillis + " ms", elapsedMillis < 1000);
+        assertTrue(result.fitness >= InventoryOptimizationWithPositions.fitness(problem, 0.75,
+                Genotype.of(PortfolioOptimizer.greedy(problem))));
+    }
+
+    @Test
+    public void noStrategyKeepsRunningAfterOptimizeReturns() throws InterruptedException {
+        ProblemInstance problem = ProblemInstance.of(items(), BINS);
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        PortfolioOptimizer portfolio = new PortfolioOptimizer(0.75, PortfolioOptimizer.defaultStrategies(0.75), runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            threads.add(thread);
+            return thread;
+        });
+
+        portfolio.optimize(problem, Duration.ofMillis(300));
+
+        // The default strategies have no generation limit: a strategy still running would keep its
+        // thread alive well past the join timeout, while finished ones only have to exit
+        assertEquals(PortfolioOptimizer.defaultStrategies(0.75).size(), threads.size());
+        for (Thread thread : threads) {
+            thread.join(10_000);
+            assertFalse(thread.isAlive());
+        }
+    }
+}
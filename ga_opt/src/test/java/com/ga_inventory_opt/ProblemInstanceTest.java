@@ -0,0 +1,69 @@
+package com.ga_inventory_opt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
+
+public class ProblemInstanceTest {
+
+    @Test
+    public void precomputesTotalsAndFitTable() {
+        ProblemInstance problem = ProblemInstance.of(
+                List.of(new Item(1, 5.0, 3.0, 25.0), new Item(2, 12.0, 4.0, 35.0), new Item(3, 40.0, 40.0, 99.0)),
+                List.of(new Bin(1, 10.0, 20.0), new Bin(2, 30.0, 5.0)));
+
+        assertEquals(3, problem.numItems());
+        assertEquals(2, problem.numBins());
+        assertEquals(159.0, problem.totalInventoryPrice(), 1e-9);
+        assertEquals(350.0, problem.totalBinArea(), 1e-9);
+        assertEquals(30.0, problem.maxBinWidth(), 1e-9);
+        assertEquals(20.0, problem.maxBinHeight(), 1e-9);
+
+        // 5x3 fits both bins in both orientations
+        assertTrue(problem.fits(0, 0, false));
+        assertTrue(problem.fits(0, 0, true));
+        assertTrue(problem.fits(0, 1, false));
+        assertTrue(problem.fits(0, 1, true));
+
+        // 12x4 only fits the 10x20 bin when rotated, and the 30x5 bin only upright
+        assertFalse(problem.fits(1, 0, false));
+        assertTrue(problem.fits(1, 0, true));
+        assertTrue(problem.fits(1, 1, false));
+        assertFalse(problem.fits(1, 1, true));
+
+        // 40x40 fits nowhere
+        assertFalse(problem.fitsAnyOrientation(2, 0));
+        assertFalse(problem.fitsAnyOrientation(2, 1));
+    }
+
+    @Test
+    public void feasibilityIndexListsOnlyBinsTheItemFits() {
+        ProblemInstance problem = ProblemInstance.of(
+                List.of(new Item(1, 12.0, 4.0, 35.0), new Item(2, 25.0, 4.0, 10.0), new Item(3, 40.0, 40.0, 99.0)),
+                List.of(new Bin(1, 10.0, 20.0), new Bin(2, 30.0, 5.0)));
+        Random random = new Random(7);
+
+        assertArrayEquals(new int[]{1, 2}, problem.feasibleBins(0));
+        assertArrayEquals(new int[]{2}, problem.feasibleBins(1));
+        assertArrayEquals(new int[]{}, problem.feasibleBins(2));
+        assertEquals(2, problem.numPlaceableItems());
+        assertFalse(problem.isPlaceable(2));
+
+        for (int n = 0; n < 50; n++) {
+            assertEquals(0, problem.randomFeasibleBin(1, 2, random));
+            assertEquals(2, problem.randomFeasibleBin(0, 1, random));
+            assertTrue(problem.randomFeasibleRotation(0, 1, random));
+            assertFalse(problem.randomFeasibleRotation(0, 2, random));
+            assertTrue(problem.randomPlaceableItem(random) != 2);
+        }
+    }
+}
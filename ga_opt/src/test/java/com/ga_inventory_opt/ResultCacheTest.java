@@ -0,0 +1,122 @@
+package com.ga_inventory_opt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ResultCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void entriesSurviveReopen() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        ResultCache cache = ResultCache.open(dir, 1 << 20, Duration.ofHours(1));
+        cache.put("a", "{\"1\":{\"2\":3}}");
+        cache.put("b", "{}");
+        cache.put("a", "{\"1\":{\"2\":4}}");
+
+        ResultCache reopened = ResultCache.open(dir, 1 << 20, Duration.ofHours(1));
+        assertEquals("{\"1\":{\"2\":4}}", reopened.get("a").orElse(null));
+        assertEquals("{}", reopened.get("b").orElse(null));
+        assertFalse(reopened.get("c").isPresent());
+    }
+
+    @Test
+    public void expiredEntriesAreIgnored() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        ResultCache cache = ResultCache.open(dir, 1 << 20, Duration.ZERO);
+        cache.put("a", "{}");
+        Thread.sleep(5);
+        assertFalse(cache.get("a").isPresent());
+    }
+
+    @Test
+    public void compactionKeepsNewestEntriesWithinLimit() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        long maxBytes = 2000;
+        ResultCache cache = ResultCache.open(dir, maxBytes, Duration.ofHours(1));
+        String value = "x".repeat(90);
+        for (int i = 0; i < 100; i++) {
+            cache.put("key" + i, value);
+        }
+        assertTrue(Files.size(dir.resolve("results.log")) <= maxBytes);
+        assertEquals(value, cache.get("key99").orElse(null));
+        assertFalse(cache.get("key0").isPresent());
+    }
+
+    @Test
+    public void appendsAfterAnotherInstanceCompactsAreKept() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        long maxBytes = 2000;
+        ResultCache first = ResultCache.open(dir, maxBytes, Duration.ofHours(1));
+        ResultCache second = ResultCache.open(dir, maxBytes, Duration.ofHours(1));
+        String value = "x".repeat(90);
+        for (int i = 0; i < 40; i++) {
+            first.put("first" + i, value);  // Compacts the shared log from time to time
+            second.put("second" + i, value);
+        }
+
+        ResultCache reopened = ResultCache.open(dir, maxBytes, Duration.ofHours(1));
+        assertEquals(value, reopened.get("first39").orElse(null));
+        assertEquals(value, reopened.get("second39").orElse(null));
+        assertTrue(Files.exists(dir.resolve("results.lock")));
+    }
+
+    @Test
+    public void canonicalKeyIgnoresOrderingAndNumberFormatting() {
+        RunOptimizer.OptimizationInput first = input(new double[][]{{1, 5.0, 3.0, 25.0, 2}, {2, 10.0, 15.0, 55.0, 1}},
+                new double[][]{{1, 20.0, 30.0}, {2, 50.0, 50.0}});
+        RunOptimizer.OptimizationInput second = input(new double[][]{{2, 10, 15, 55.00, 1}, {1, 5, 3, 25, 2}, {3, 1, 1, 1, 0}},
+                new double[][]{{2, 50, 50}, {1, 20, 30}});
+
+        String firstKey = ResultCache.hash(RunOptimizer.canonicalize(first,
+                RunOptimizer.canonicalBinOrder(first.binTypes), 0.75, 1200, 150));
+        String secondKey = ResultCache.hash(RunOptimizer.canonicalize(second,
+                RunOptimizer.canonicalBinOrder(second.binTypes), 0.75, 1200, 150));
+        String otherParams = ResultCache.hash(RunOptimizer.canonicalize(first,
+                RunOptimizer.canonicalBinOrder(first.binTypes), 0.75, 1200, 100));
+        String seeded = ResultCache.hash(RunOptimizer.canonicalize(first,
+                RunOptimizer.canonicalBinOrder(first.binTypes), 0.75, RunOptimizer.DEFAULT_PARAMETERS, 7L));
+
+        assertEquals(firstKey, secondKey);
+        assertNotEquals(firstKey, otherParams);
+        assertNotEquals(firstKey, seeded);
+    }
+
+    private static RunOptimizer.OptimizationInput input(double[][] items, double[][] bins) {
+        RunOptimizer.OptimizationInput input = new RunOptimizer.OptimizationInput();
+        input.itemTypes = new ArrayList<>();
+        for (double[] row : items) {
+            RunOptimizer.ItemType itemType = new RunOptimizer.ItemType();
+            itemType.number = (int) row[0];
+            itemType.width = row[1];
+            itemType.height = row[2];
+            itemType.price = row[3];
+            itemType.quantity = (int) row[4];
+            input.itemTypes.add(itemType);
+        }
+        List<RunOptimizer.BinType> binTypes = new ArrayList<>();
+        for (double[] row : bins) {
+            RunOptimizer.BinType binType = new RunOptimizer.BinType();
+            binType.number = (int) row[0];
+            binType.width = row[1];
+            binType.height = row[2];
+            binTypes.add(binType);
+        }
+        input.binTypes = binTypes;
+        return input;
+    }
+}
@@ -1,48 +1,90 @@
 package com.ga_inventory_opt;
 
-import org.junit.Test;
-import java.io.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 public class RunOptimizerTest {
 
+    // Two small types that fit the first bin many times over, and one type that fits no bin
+    private static final String INPUT = """
+            {
+              "itemTypes": [
+                {"number": 7, "width": 5.0, "height": 3.0, "price": 25.0, "quantity": 3},
+                {"number": 9, "width": 4.0, "height": 4.0, "price": 30.0, "quantity": 2},
+                {"number": 11, "width": 100.0, "height": 100.0, "price": 500.0, "quantity": 1}
+              ],
+              "binTypes": [
+                {"number": 1, "width": 20.0, "height": 30.0},
+                {"number": 2, "width": 15.0, "height": 25.0}
+              ]
+            }
+            """;
+
+    @Before
+    public void configure() {
+        System.setProperty("ga_opt.cache.enabled", "false");
+        System.setProperty("ga_opt.profile.enabled", "false");
+        System.setProperty("ga_opt.seed", "5");
+    }
+
+    @After
+    public void restore() {
+        System.clearProperty("ga_opt.cache.enabled");
+        System.clearProperty("ga_opt.profile.enabled");
+        System.clearProperty("ga_opt.seed");
+    }
+
     @Test
     public void testJsonInputOutput() throws Exception {
-        assertTrue("Dummy test", true);
-        return;
-//        // Prepare JSON input as a string
-//        String jsonInput = """
-//        {
-//          "items": [
-//            {"number": 1, "width": 5.0, "height": 3.0, "price": 25.0}
-//          ],
-//          "bins": [
-//            {"number": 1, "width": 20.0, "height": 30.0}
-//          ]
-//        }
-//        """;
-//
-//        // Redirect System.in and System.out
-//        InputStream originalIn = System.in;
-//        PrintStream originalOut = System.out;
-//
-//        ByteArrayInputStream testIn = new ByteArrayInputStream(jsonInput.getBytes());
-//        ByteArrayOutputStream testOut = new ByteArrayOutputStream();
-//
-//        System.setIn(testIn);
-//        System.setOut(new PrintStream(testOut));
-//
-//        // Run main()
-//        RunOptimizer.main(new String[]{});
-//
-//        // Restore streams
-//        System.setIn(originalIn);
-//        System.setOut(originalOut);
-//
-//        // Verify output
-//        String output = testOut.toString();
-//        assertTrue("Output should contain the dummy solution",
-//                output.contains("\"bestSolution\":\"OptimizedSolutionPlaceholder\""));    }
-//}
+        Map<Integer, Map<Integer, Integer>> output = new ObjectMapper().readValue(runMain(INPUT),
+                new TypeReference<Map<Integer, Map<Integer, Integer>>>() {});
+
+        // One entry per bin, keyed by position, holding stored units per item type number
+        assertEquals(Set.of(1, 2), output.keySet());
+        assertEquals(3, stored(output, 7));
+        assertEquals(2, stored(output, 9));
+        assertFalse(output.get(1).containsKey(11) || output.get(2).containsKey(11));
+    }
+
+    @Test
+    public void seededRunsPrintTheSameOutput() throws Exception {
+        String first = runMain(INPUT);
+        assertTrue(first.startsWith("{"));
+        assertEquals(first, runMain(INPUT));
+    }
+
+    private static int stored(Map<Integer, Map<Integer, Integer>> output, int type) {
+        return output.values().stream().mapToInt(counts -> counts.getOrDefault(type, 0)).sum();
+    }
+
+    private static String runMain(String input) throws Exception {
+        InputStream originalIn = System.in;
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+            System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+            RunOptimizer.main(new String[]{});
+        } finally {
+            System.setIn(originalIn);
+            System.setOut(originalOut);
+        }
+        return out.toString(StandardCharsets.UTF_8);
     }
-}
\ No newline at end of file
+}
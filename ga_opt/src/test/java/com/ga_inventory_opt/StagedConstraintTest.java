@@ -0,0 +1,172 @@
+package com.ga_inventory_opt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Bin;
+import com.ga_inventory_opt.InventoryOptimizationWithPositions.Item;
+
+import io.jenetics.Genotype;
+import io.jenetics.Optimize;
+import io.jenetics.Phenotype;
+import io.jenetics.engine.EvolutionDurations;
+import io.jenetics.engine.EvolutionResult;
+import io.jenetics.util.ISeq;
+
+public class StagedConstraintTest {
+
+    private final ProblemInstance problem = ProblemInstance.of(
+            List.of(new Item(1, 10.0, 10.0, 50.0), new Item(2, 10.0, 10.0, 40.0),
+                    new Item(3, 10.0, 10.0, 30.0), new Item(4, 10.0, 10.0, 20.0)),
+            List.of(new Bin(1, 20.0, 20.0), new Bin(2, 10.0, 10.0)));
+
+    @Test
+    public void legalizeSeparatesOverlappingItems() {
+        // All four items stacked on the same spot of the 20x20 bin
+        PackingChromosome.Builder builder = new PackingChromosome.Builder(problem);
+        for (int i = 0; i < 4; i++) {
+            builder.set(i, 1, 3.0, 3.0, false);
+        }
+        PackingChromosome overlapping = builder.build();
+        assertFalse(InventoryOptimizationWithPositions.isValid(problem, phenotype(overlapping)));
+
+        PackingChromosome legal = StagedConstraint.legalize(problem, overlapping);
+
+        // Keeping item 1 at (3, 3) leaves no room for the others, so the bin is re-packed
+        assertTrue(InventoryOptimizationWithPositions.isValid(problem, phenotype(legal)));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(1, legal.bin(i));
+        }
+    }
+
+    @Test
+    public void legalizeKeepsFreePositions() {
+        PackingChromosome.Builder builder = new PackingChromosome.Builder(problem);
+        builder.set(0, 1, 10.0, 10.0, false);
+        builder.set(1, 1, 12.0, 12.0, false);
+        builder.set(2, 0, 0.0, 0.0, false);
+        builder.set(3, 0, 0.0, 0.0, false);
+
+        PackingChromosome legal = StagedConstraint.legalize(problem, builder.build());
+
+        assertTrue(InventoryOptimizationWithPositions.isValid(problem, phenotype(legal)));
+        assertEquals(10.0, legal.row(0), 0.0);
+        assertEquals(10.0, legal.col(0), 0.0);
+        assertEquals(1, legal.bin(1));
+        assertEquals(0.0, legal.row(1), 0.0);
+        assertEquals(0.0, legal.col(1), 0.0);
+    }
+
+    @Test
+    public void legalizeEvictsItemsWithoutRoom() {
+        PackingChromosome.Builder builder = new PackingChromosome.Builder(problem);
+        builder.set(0, 2, 0.0, 0.0, false);
+        builder.set(1, 2, 0.0, 0.0, false);
+        builder.set(2, 0, 0.0, 0.0, false);
+        builder.set(3, 0, 0.0, 0.0, false);
+
+        PackingChromosome legal = StagedConstraint.legalize(problem, builder.build());
+
+        assertEquals(2, legal.bin(0));
+        assertEquals(0, legal.bin(1));
+    }
+
+    @Test
+    public void areaScreenRejectsOverfullBinsWithoutGeometry() {
+        PackingChromosome.Builder builder = new PackingChromosome.Builder(problem);
+        builder.set(0, 2, 0.0, 0.0, false);
+        builder.set(1, 2, 0.0, 0.0, false);
+        builder.set(2, 0, 0.0, 0.0, false);
+        builder.set(3, 0, 0.0, 0.0, false);
+
+        PackingChromosome overfull = builder.build();
+
+        StagedConstraint constraint = new StagedConstraint(problem, 0.75);
+        assertFalse(constraint.test(phenotype(overfull)));
+        assertEquals(0, constraint.fullEvaluations());
+        assertEquals(1, constraint.savedEvaluations());
+
+        // With no elite threshold yet, repair places it geometrically: counted once, as a full evaluation
+        Phenotype<PackingGene, Double> repaired = constraint.repair(phenotype(overfull), 0);
+        assertTrue(StagedConstraint.isLegal(problem, (PackingChromosome) repaired.genotype().chromosome()));
+        assertEquals(1, constraint.fullEvaluations());
+        assertEquals(0, constraint.savedEvaluations());
+    }
+
+    @Test
+    public void updateRaisesThresholdToEliteBoundary() {
+        StagedConstraint constraint = new StagedConstraint(problem, 0.75);
+        assertEquals(Double.NEGATIVE_INFINITY, constraint.eliteThreshold(), 0.0);
+
+        // 20 evaluated individuals with fitness 0.05 .. 1.0: the top 10% are the best two
+        ISeq<Phenotype<PackingGene, Double>> population = IntStream.rangeClosed(1, 20)
+                .mapToObj(k -> phenotype(stacked(0)).withFitness(k / 20.0))
+                .collect(ISeq.toISeq());
+        constraint.update(EvolutionResult.of(Optimize.MAXIMUM, population, 1, EvolutionDurations.ZERO, 0, 0, 0));
+
+        assertEquals(0.95, constraint.eliteThreshold(), 1e-12);
+    }
+
+    @Test
+    public void candidatesBelowThresholdAreAcceptedAtLowFidelity() {
+        StagedConstraint constraint = new StagedConstraint(problem, 0.75);
+        PackingChromosome overlapping = stacked(2);
+        double fitness = InventoryOptimizationWithPositions.fitness(problem, 0.75, Genotype.of(overlapping));
+        assertFalse(StagedConstraint.isLegal(problem, overlapping));
+
+        // At or below the elite threshold: accepted without any overlap check
+        constraint.update(EvolutionResult.of(Optimize.MAXIMUM,
+                ISeq.of(phenotype(stacked(0)).withFitness(fitness)), 1, EvolutionDurations.ZERO, 0, 0, 0));
+        Phenotype<PackingGene, Double> offspring = Phenotype.of(Genotype.of(overlapping), 2);
+        assertTrue(constraint.test(offspring));
+        assertEquals(0, constraint.fullEvaluations());
+        assertEquals(1, constraint.savedEvaluations());
+
+        // Passing again as a survivor in the next generation saves nothing new
+        constraint.update(EvolutionResult.of(Optimize.MAXIMUM,
+                ISeq.of(phenotype(stacked(0)).withFitness(fitness)), 2, EvolutionDurations.ZERO, 0, 0, 0));
+        assertTrue(constraint.test(offspring));
+        assertEquals(1, constraint.savedEvaluations());
+
+        // Above it: could enter the elite set, so it is checked and rejected
+        constraint.update(EvolutionResult.of(Optimize.MAXIMUM,
+                ISeq.of(phenotype(stacked(0)).withFitness(fitness - 0.1)), 3, EvolutionDurations.ZERO, 0, 0, 0));
+        assertFalse(constraint.test(offspring));
+        assertEquals(1, constraint.fullEvaluations());
+        assertEquals(1, constraint.savedEvaluations());
+    }
+
+    @Test
+    public void isLegalHasNoOverlapTolerance() {
+        // Overlap of half a unit, which the optimizer's validator tolerates
+        PackingChromosome.Builder builder = new PackingChromosome.Builder(problem);
+        builder.set(0, 1, 0.0, 0.0, false);
+        builder.set(1, 1, 9.5, 9.5, false);
+        builder.set(2, 0, 0.0, 0.0, false);
+        builder.set(3, 0, 0.0, 0.0, false);
+        PackingChromosome chromosome = builder.build();
+
+        assertTrue(InventoryOptimizationWithPositions.isValid(problem, phenotype(chromosome)));
+        assertFalse(StagedConstraint.isLegal(problem, chromosome));
+        assertTrue(StagedConstraint.isLegal(problem, StagedConstraint.legalize(problem, chromosome)));
+    }
+
+    // The first n items stacked on the same spot of the 20x20 bin, the others outside
+    private PackingChromosome stacked(int n) {
+        PackingChromosome.Builder builder = new PackingChromosome.Builder(problem);
+        for (int i = 0; i < 4; i++) {
+            builder.set(i, i < n ? 1 : 0, 0.0, 0.0, false);
+        }
+        return builder.build();
+    }
+
+    private static Phenotype<PackingGene, Double> phenotype(PackingChromosome chromosome) {
+        return Phenotype.of(Genotype.of(chromosome), 0);
+    }
+}
@@ -0,0 +1,140 @@
+package com.ga_inventory_opt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.ga_inventory_opt.TuningProfile.Features;
+import com.ga_inventory_opt.TuningProfile.InstanceClass;
+import com.ga_inventory_opt.TuningProfile.Parameters;
+
+public class TuningProfileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static TuningProfile profile() {
+        TuningProfile profile = new TuningProfile();
+        InstanceClass small = new InstanceClass("small", 60, 4, 1.0);
+        small.parameters = new Parameters(100, 80, 0.3, 0.5);
+        InstanceClass rest = new InstanceClass("rest", Integer.MAX_VALUE, Integer.MAX_VALUE, Double.MAX_VALUE);
+        rest.parameters = new Parameters(600, 200, 0.2, 0.3);
+        profile.classes.add(small);
+        profile.classes.add(rest);
+        return profile;
+    }
+
+    @Test
+    public void firstMatchingClassWinsAfterRoundTrip() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("profile.json");
+        profile().save(file);
+        TuningProfile loaded = TuningProfile.load(file);
+
+        assertEquals(new Parameters(100, 80, 0.3, 0.5), loaded.recommend(new Features(40, 3, 0.8)));
+        assertEquals(600, loaded.recommend(new Features(40, 3, 1.5)).populationSize());
+        assertEquals(600, loaded.recommend(new Features(500, 2, 0.5)).populationSize());
+    }
+
+    @Test
+    public void runOptimizerResolvesParametersFromProfile() {
+        RunOptimizer.OptimizationInput input = new RunOptimizer.OptimizationInput();
+        input.itemTypes = new ArrayList<>();
+        RunOptimizer.ItemType itemType = new RunOptimizer.ItemType();
+        itemType.number = 1;
+        itemType.width = 5;
+        itemType.height = 3;
+        itemType.price = 25;
+        itemType.quantity = 10;
+        input.itemTypes.add(itemType);
+        input.binTypes = new ArrayList<>();
+        RunOptimizer.BinType binType = new RunOptimizer.BinType();
+        binType.number = 1;
+        binType.width = 20;
+        binType.height = 30;
+        input.binTypes.add(binType);
+
+        Parameters resolved = RunOptimizer.resolveParameters(profile(), input);
+        assertEquals(100, resolved.populationSize());
+        assertSame(RunOptimizer.DEFAULT_PARAMETERS, RunOptimizer.resolveParameters(null, input));
+
+        // Profile parameters are part of the cache key
+        int[] order = RunOptimizer.canonicalBinOrder(input.binTypes);
+        assertNotEquals(RunOptimizer.canonicalize(input, order, 0.75, resolved),
+                RunOptimizer.canonicalize(input, order, 0.75, new Parameters(100, 80, 0.3, 0.7)));
+    }
+
+    @Test
+    public void tunerPicksAConfigurationPerClass() {
+        ParameterTuner tuner = new ParameterTuner(0.75, 0.02, 1);
+        List<InstanceClass> classes = List.of(new InstanceClass("tiny", 12, 2, Double.MAX_VALUE));
+        List<Parameters> configurations = List.of(
+                new Parameters(20, 10, 0.2, 0.3), new Parameters(30, 5, 0.4, 0.5), new Parameters(10, 10, 0.1, 0.7));
+
+        InstanceClass tiny = classes.get(0);
+        List<ParameterTuner.Instance> instances = List.of(
+                tuner.generate(tiny, 0, 0, 0.0), tuner.generate(tiny, 0, 0, 0.0));
+        List<ParameterTuner.Rung> rungs = tuner.race(tiny, configurations, instances);
+
+        assertNotNull(tiny.parameters);
+        assertTrue(configurations.contains(tiny.parameters));
+
+        // Successive halving: 3 configurations on 1 instance with half the generations, then the better 2
+        // on both with all of them
+        assertEquals(2, rungs.size());
+        assertEquals(3, rungs.get(0).configurations());
+        assertEquals(1, rungs.get(0).instances());
+        assertEquals(0.5, rungs.get(0).generationShare(), 0.0);
+        assertEquals(2, rungs.get(1).configurations());
+        assertEquals(2, rungs.get(1).instances());
+        assertEquals(1.0, rungs.get(1).generationShare(), 0.0);
+        assertEquals(tiny.parameters, rungs.get(1).best());
+        assertEquals(tiny.score, rungs.get(1).score(), 0.0);
+    }
+
+    @Test
+    public void earlyRungsRunFewerGenerations() {
+        Parameters parameters = new Parameters(300, 200, 0.2, 0.3);
+        assertEquals(50, ParameterTuner.budgeted(parameters, 0.25).maxGenerations());
+        assertEquals(200, ParameterTuner.budgeted(parameters, 1.0).maxGenerations());
+        assertEquals(ParameterTuner.MIN_RUNG_GENERATIONS, ParameterTuner.budgeted(parameters, 0.01).maxGenerations());
+        assertEquals(5, ParameterTuner.budgeted(new Parameters(30, 5, 0.4, 0.5), 0.25).maxGenerations());
+        assertEquals(300, ParameterTuner.budgeted(parameters, 0.25).populationSize());
+    }
+
+    @Test
+    public void generatedInstancesStayNearTheClassBoundary() {
+        ParameterTuner tuner = new ParameterTuner(0.75, 0.0, 3);
+        InstanceClass large = new InstanceClass("large", Integer.MAX_VALUE, Integer.MAX_VALUE, Double.MAX_VALUE);
+        for (int k = 0; k < 20; k++) {
+            int units = tuner.generate(large, 300, 0, 0.0).items().size();
+            assertTrue("" + units, units > 300 && units <= 400);
+        }
+    }
+
+    @Test
+    public void racesWithTheSameSeedPickTheSameConfiguration() {
+        List<Parameters> configurations = List.of(
+                new Parameters(20, 10, 0.2, 0.3), new Parameters(30, 5, 0.4, 0.5), new Parameters(10, 10, 0.1, 0.7));
+        InstanceClass[] results = new InstanceClass[2];
+        for (int r = 0; r < 2; r++) {
+            // No time weight: the score is the relative fitness only, which seeded runs reproduce exactly
+            ParameterTuner tuner = new ParameterTuner(0.75, 0.0, 9);
+            InstanceClass tiny = new InstanceClass("tiny", 12, 2, Double.MAX_VALUE);
+            tuner.race(tiny, configurations, List.of(tuner.generate(tiny, 0, 0, 0.0), tuner.generate(tiny, 0, 0, 0.0)));
+            results[r] = tiny;
+        }
+
+        assertEquals(results[0].parameters, results[1].parameters);
+        assertEquals(results[0].score, results[1].score, 0.0);
+    }
+}